@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilmStorageBenchmark {
+
+    private static final List<String> SEARCH_BY = List.of("title", "director");
+
+    @Benchmark
+    public List<Film> findPopular(FilmorateState state) {
+        return state.filmStorage.findPopular(10, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getFilmsQuery(FilmorateState state) {
+        return state.filmStorage.getFilmsQuery(state.randomWord(), SEARCH_BY);
+    }
+
+    @Benchmark
+    public List<Film> getRecommendations(FilmorateState state) {
+        return state.filmStorage.getRecommendations(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<Film> getCommonFilmsWithFriend(FilmorateState state) {
+        return state.filmStorage.getCommonFilmsWithFriend(state.randomUserId(), state.randomUserId());
+    }
+
+    /**
+     * Лайк и его отмена через сервис для пары без лайка, поэтому лайки в базе не меняются, а события
+     * ленты удаляются после итерации.
+     */
+    @Benchmark
+    public void likeAndUnlike(FilmorateState state) {
+        long[] pair = state.randomUnlikedPair();
+        state.filmService.addLike(pair[0], pair[1]);
+        state.filmService.removeLike(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.dao.FeedDbStorage;
+import ru.yandex.practicum.filmorate.dao.FeedEventWriter;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.generator.DataVolume;
+import ru.yandex.practicum.filmorate.generator.SyntheticDataGenerator;
+import ru.yandex.practicum.filmorate.index.SortedLongArrays;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Приложение без веб-сервера поверх файловой H2 в {@code target/jmh}. База заполняется
+ * {@link SyntheticDataGenerator} один раз для каждого объема и переиспользуется следующими запусками,
+ * поэтому события ленты, добавленные за итерацию, после нее удаляются.
+ */
+@State(Scope.Benchmark)
+public class FilmorateState {
+
+    @Param({"10k"})
+    public String scale;
+
+    ConfigurableApplicationContext context;
+    FilmDbStorage filmStorage;
+    UserDbStorage userStorage;
+    FeedDbStorage feedStorage;
+    FilmService filmService;
+    RecommendationEngine recommendationEngine;
+    private FeedEventWriter feedEventWriter;
+    private JdbcTemplate jdbcTemplate;
+
+    private long firstUserId;
+    private long lastUserId;
+    private long firstFilmId;
+    private long lastFilmId;
+    private long lastEventId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:./target/jmh/filmorate-" + scale,
+                        "--logging.level.root=WARN");
+
+        filmStorage = context.getBean(FilmDbStorage.class);
+        userStorage = context.getBean(UserDbStorage.class);
+        feedStorage = context.getBean(FeedDbStorage.class);
+        filmService = context.getBean(FilmService.class);
+        recommendationEngine = context.getBean(RecommendationEngine.class);
+        feedEventWriter = context.getBean(FeedEventWriter.class);
+
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long films = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM film", Long.class);
+        if (films == null || films == 0) {
+            context.getBean(SyntheticDataGenerator.class).generate(DataVolume.of(scale));
+            filmStorage.rebuildIndexes();
+            userStorage.rebuildFriendGraph();
+        }
+
+        firstUserId = jdbcTemplate.queryForObject("SELECT MIN(user_id) FROM app_user", Long.class);
+        lastUserId = jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM app_user", Long.class);
+        firstFilmId = jdbcTemplate.queryForObject("SELECT MIN(film_id) FROM film", Long.class);
+        lastFilmId = jdbcTemplate.queryForObject("SELECT MAX(film_id) FROM film", Long.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void rememberLastEvent() {
+        feedEventWriter.flush();
+        lastEventId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(event_id), 0) FROM feed", Long.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeIterationEvents() {
+        feedEventWriter.flush();
+        jdbcTemplate.update("DELETE FROM feed_archive WHERE event_id > ?", lastEventId);
+        jdbcTemplate.update("DELETE FROM feed WHERE event_id > ?", lastEventId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(firstUserId, lastUserId + 1);
+    }
+
+    long randomFilmId() {
+        return ThreadLocalRandom.current().nextLong(firstFilmId, lastFilmId + 1);
+    }
+
+    /**
+     * Случайная пара {@code {filmId, userId}}, для которой лайка еще нет.
+     */
+    long[] randomUnlikedPair() {
+        while (true) {
+            long filmId = randomFilmId();
+            long userId = randomUserId();
+            if (!SortedLongArrays.contains(recommendationEngine.getLikedFilms(userId), filmId)) {
+                return new long[]{filmId, userId};
+            }
+        }
+    }
+
+    String randomWord() {
+        List<String> words = SyntheticDataGenerator.TITLE_WORDS;
+        return words.get(ThreadLocalRandom.current().nextInt(words.size()));
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+
+@Getter
+@Component
+public class EntityCache {
+
+    private final Cache<Long, Film> films;
+    private final Cache<Long, User> users;
+
+    public EntityCache(@Value("${filmorate.cache.entity.maximum-size:10000}") long maximumSize,
+                       @Value("${filmorate.cache.entity.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.films = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through кэш небольшого справочника. После полной загрузки справочника отсутствие ключа
+ * в кэше означает отсутствие записи в БД, поэтому проверки существования не идут в базу.
+ */
+public class ReferenceCache<K, V> {
+
+    private final Function<V, K> keyExtractor;
+    private final Map<K, V> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile List<V> all;
+
+    public ReferenceCache(Function<V, K> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V value = entries.get(key);
+        if (value != null || all != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+
+        misses.incrementAndGet();
+        long loadedVersion = version.get();
+        value = loader.apply(key);
+        if (value != null) {
+            putIfCurrent(key, value, loadedVersion);
+        }
+
+        return value;
+    }
+
+    public List<V> getAll(Supplier<List<V>> loader) {
+        List<V> snapshot = all;
+        if (snapshot != null) {
+            hits.incrementAndGet();
+            return snapshot;
+        }
+
+        misses.incrementAndGet();
+        long loadedVersion = version.get();
+        snapshot = List.copyOf(loader.get());
+        fillIfCurrent(snapshot, loadedVersion);
+
+        return snapshot;
+    }
+
+    public synchronized void warmUp(List<V> values) {
+        version.incrementAndGet();
+        entries.clear();
+        fillIfCurrent(List.copyOf(values), version.get());
+    }
+
+    public synchronized void invalidate(K key) {
+        version.incrementAndGet();
+        entries.remove(key);
+        all = null;
+    }
+
+    public synchronized void invalidateAll() {
+        version.incrementAndGet();
+        entries.clear();
+        all = null;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void putIfCurrent(K key, V value, long loadedVersion) {
+        if (loadedVersion == version.get()) {
+            entries.put(key, value);
+        }
+    }
+
+    private synchronized void fillIfCurrent(List<V> values, long loadedVersion) {
+        if (loadedVersion == version.get()) {
+            values.forEach(value -> entries.put(keyExtractor.apply(value), value));
+            all = values;
+        }
+    }
+}
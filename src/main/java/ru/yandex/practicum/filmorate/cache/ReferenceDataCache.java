@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.Map;
+
+@Getter
+@Component
+public class ReferenceDataCache {
+
+    private final ReferenceCache<Integer, MpaRating> mpaRatings = new ReferenceCache<>(MpaRating::getId);
+    private final ReferenceCache<Integer, Genre> genres = new ReferenceCache<>(Genre::getId);
+    private final ReferenceCache<Long, Director> directors = new ReferenceCache<>(Director::getId);
+
+    public Map<String, ReferenceCache<?, ?>> getCaches() {
+        return Map.of("mpa", mpaRatings, "genre", genres, "director", directors);
+    }
+}
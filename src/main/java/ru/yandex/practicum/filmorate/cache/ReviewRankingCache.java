@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Review;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Первые {@code topSize} отзывов фильма по полезности и фильм каждого отзыва, чтобы реакция на отзыв
+ * могла сбросить список его фильма без обращения к базе.
+ */
+@Getter
+@Component
+public class ReviewRankingCache {
+
+    private final int topSize;
+    private final Cache<Long, List<Review>> filmTops;
+    private final Cache<Long, Long> reviewFilms;
+
+    public ReviewRankingCache(@Value("${filmorate.reviews.top-cache.size:100}") int topSize,
+                              @Value("${filmorate.reviews.top-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${filmorate.reviews.film-cache.maximum-size:100000}") long reviewFilmsSize) {
+        this.topSize = topSize;
+        this.filmTops = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.reviewFilms = Caffeine.newBuilder()
+                .maximumSize(reviewFilmsSize)
+                .recordStats()
+                .build();
+    }
+
+    public void invalidateFilm(long filmId) {
+        filmTops.invalidate(filmId);
+    }
+
+    /**
+     * Сбрасывает списки фильмов, к которым относятся отзывы. Если фильм отзыва уже вытеснен из кэша,
+     * сбрасываются все списки.
+     */
+    public void invalidateReviews(Collection<Long> reviewIds) {
+        for (Long reviewId : reviewIds) {
+            Long filmId = reviewFilms.getIfPresent(reviewId);
+            if (filmId == null) {
+                filmTops.invalidateAll();
+                return;
+            }
+            filmTops.invalidate(filmId);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,9 +18,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BulkImportResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Suggestion;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -25,10 +34,21 @@ import java.util.List;
 public class FilmController {
 
     private final FilmService filmService;
+    private final FilmImportService filmImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<Film> getAllFilms() {
-        return filmService.getAllFilms();
+    public List<Film> getAllFilms(@RequestParam(required = false) Long after,
+                                  @RequestParam(required = false) @Positive @Max(1000) Integer limit) {
+        if (after == null && limit == null) {
+            return filmService.getAllFilms();
+        }
+        return filmService.getFilms(after, limit == null ? 100 : limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        return NdjsonStreams.stream(objectMapper, NdjsonStreams.pages(filmService::getFilms, Film::getId));
     }
 
     @GetMapping("/{id}")
@@ -36,6 +56,13 @@ public class FilmController {
         return filmService.getFilmById(id);
     }
 
+    @GetMapping("/{id}/likes")
+    public List<Long> getLikes(@PathVariable("id") Long filmId,
+                               @RequestParam(required = false) Long after,
+                               @RequestParam(defaultValue = "100") @Positive @Max(1000) Integer limit) {
+        return filmService.getLikes(filmId, after, limit);
+    }
+
     @GetMapping("/popular")
     public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") @Positive Integer count,
                                       @RequestParam(required = false) @Positive Integer genreId,
@@ -49,6 +76,12 @@ public class FilmController {
         return filmService.getFilmsQuery(query, by);
     }
 
+    @GetMapping("/autocomplete")
+    public List<Suggestion> autocomplete(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "10") @Positive @Max(100) Integer limit) {
+        return filmService.autocomplete(prefix, limit);
+    }
+
     @GetMapping("/director/{directorId}")
     public List<Film> getFilmsByDirectorSorted(@PathVariable Long directorId, @RequestParam String sortBy) {
         return filmService.findFilmsByDirectorSorted(directorId, sortBy);
@@ -60,6 +93,11 @@ public class FilmController {
         return filmService.addFilm(film);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importFilms(InputStream body) {
+        return NdjsonStreams.<BulkImportResult>stream(objectMapper, sink -> filmImportService.importFilms(body, sink));
+    }
+
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film film) {
         return filmService.updateFilm(film);
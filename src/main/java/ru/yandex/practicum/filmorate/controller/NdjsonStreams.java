@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+final class NdjsonStreams {
+
+    private static final int PAGE_SIZE = 500;
+
+    private NdjsonStreams() {
+    }
+
+    /**
+     * Источник строк ответа: передает их по одной в {@code consumer}.
+     */
+    @FunctionalInterface
+    interface Source<T> {
+
+        void forEach(Consumer<T> consumer) throws IOException;
+    }
+
+    /**
+     * Источник для {@link #stream}, который обходит всю таблицу страницами по ключу, не загружая ее в память.
+     *
+     * @param findPage страница строк с ID больше переданного ({@code null} — с начала) заданного размера
+     */
+    static <T> Source<T> pages(BiFunction<Long, Integer, List<T>> findPage, Function<T, Long> idOf) {
+        return consumer -> {
+            List<T> page;
+            Long afterId = null;
+            do {
+                page = findPage.apply(afterId, PAGE_SIZE);
+                page.forEach(consumer);
+                if (!page.isEmpty()) {
+                    afterId = idOf.apply(page.get(page.size() - 1));
+                }
+            } while (page.size() == PAGE_SIZE);
+        };
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper,
+                                                            Source<T> source) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                source.forEach(value -> {
+                    try {
+                        writer.write(value);
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
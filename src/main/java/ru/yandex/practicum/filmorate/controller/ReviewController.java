@@ -1,6 +1,8 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,8 +27,9 @@ public class ReviewController {
 
     @GetMapping
     public List<Review> findAll(@RequestParam(required = false) Long filmId,
-                                @RequestParam(defaultValue = "10") int count) {
-        return reviewService.findReviews(filmId, count);
+                                @RequestParam(required = false) Long after,
+                                @RequestParam(defaultValue = "10") @Positive @Max(1000) int count) {
+        return reviewService.findReviews(filmId, after, count);
     }
 
     @GetMapping("/{id}")
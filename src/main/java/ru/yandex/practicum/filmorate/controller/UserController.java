@@ -1,8 +1,13 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,14 +15,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BulkImportResult;
 import ru.yandex.practicum.filmorate.model.Feed;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserImportService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -27,10 +37,21 @@ public class UserController {
 
     private final UserService userService;
     private final FilmService filmService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public List<User> getAllUsers(@RequestParam(required = false) Long after,
+                                  @RequestParam(required = false) @Positive @Max(1000) Integer limit) {
+        if (after == null && limit == null) {
+            return userService.getAllUsers();
+        }
+        return userService.getUsers(after, limit == null ? 100 : limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return NdjsonStreams.stream(objectMapper, NdjsonStreams.pages(userService::getUsers, User::getId));
     }
 
     @GetMapping("/{id}")
@@ -38,9 +59,26 @@ public class UserController {
         return userService.getUserById(id);
     }
 
+    /**
+     * Без параметров возвращает всю ленту от старых событий к новым, как и раньше. С {@code before}
+     * или {@code limit} — страницу от новых к старым: следующая запрашивается с {@code before},
+     * равным {@code eventId} последнего события.
+     */
     @GetMapping("/{id}/feed")
-    public List<Feed> findByUser(@PathVariable Long id) {
-        return userService.findByUser(id);
+    public List<Feed> findByUser(@PathVariable Long id,
+                                 @RequestParam(required = false) Long before,
+                                 @RequestParam(required = false) @Positive @Max(1000) Integer limit) {
+        if (before == null && limit == null) {
+            return userService.findByUser(id);
+        }
+        return userService.findFeedPage(id, before, limit == null ? 100 : limit);
+    }
+
+    @GetMapping("/{id}/timeline")
+    public List<Feed> getTimeline(@PathVariable Long id,
+                                  @RequestParam(required = false) Long before,
+                                  @RequestParam(defaultValue = "20") @Positive Integer limit) {
+        return userService.getTimeline(id, before, limit);
     }
 
     @GetMapping("/{id}/friends")
@@ -65,6 +103,17 @@ public class UserController {
         return userService.addUser(user);
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importUsers(InputStream body) {
+        return NdjsonStreams.<BulkImportResult>stream(objectMapper, sink -> userImportService.importUsers(body, sink));
+    }
+
+    @PostMapping(value = "/friends/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importFriendships(InputStream body) {
+        return NdjsonStreams.<BulkImportResult>stream(objectMapper, sink -> userImportService.importFriendships(body, sink));
+    }
+
     @PutMapping
     public User updateUser(@Valid @RequestBody User user) {
         return userService.updateUser(user);
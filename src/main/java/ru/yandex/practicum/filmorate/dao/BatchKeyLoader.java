@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.metrics.RequestQueryCounter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выполняет запросы вида {@code ... IN (...)} по произвольному числу ключей. Ключи режутся на пачки
+ * фиксированных размеров (16/64/256), недостающие места дополняются последним ключом, поэтому у каждого
+ * запроса есть лишь три варианта текста и они переиспользуются кэшем подготовленных выражений.
+ */
+@Component
+public class BatchKeyLoader {
+
+    private static final int[] BUCKET_SIZES = {16, 64, 256};
+    private static final int MAX_BUCKET_SIZE = BUCKET_SIZES[BUCKET_SIZES.length - 1];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor executor;
+
+    public BatchKeyLoader(JdbcTemplate jdbcTemplate,
+                          @Value("${filmorate.batch-loader.threads:4}") int threads,
+                          @Value("${filmorate.batch-loader.queue-capacity:64}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("batch-key-loader-", 0).daemon().factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * @param sqlTemplate запрос с единственным {@code %s} на месте списка плейсхолдеров, например
+     *                    {@code SELECT * FROM film_genre WHERE film_id IN (%s)}
+     */
+    public <K, T> List<T> query(String sqlTemplate, Collection<K> keys, RowMapper<T> rowMapper) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<List<Object>> chunks = split(keys);
+        if (chunks.size() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<T> result = new ArrayList<>();
+            chunks.forEach(chunk -> result.addAll(queryChunk(sqlTemplate, chunk, rowMapper)));
+            return result;
+        }
+
+        Executor requestExecutor = task -> executor.execute(RequestQueryCounter.propagate(task));
+        List<CompletableFuture<List<T>>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> queryChunk(sqlTemplate, chunk, rowMapper),
+                        requestExecutor))
+                .toList();
+
+        List<T> result = new ArrayList<>();
+        futures.forEach(future -> result.addAll(future.join()));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> List<T> queryChunk(String sqlTemplate, List<Object> chunk, RowMapper<T> rowMapper) {
+        String sql = String.format(sqlTemplate, String.join(",", Collections.nCopies(chunk.size(), "?")));
+        return jdbcTemplate.query(sql, rowMapper, chunk.toArray());
+    }
+
+    private <K> List<List<Object>> split(Collection<K> keys) {
+        List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<List<Object>> chunks = new ArrayList<>();
+
+        for (int from = 0; from < distinctKeys.size(); from += MAX_BUCKET_SIZE) {
+            List<Object> chunk = new ArrayList<>(
+                    distinctKeys.subList(from, Math.min(from + MAX_BUCKET_SIZE, distinctKeys.size())));
+            Object padding = chunk.get(chunk.size() - 1);
+            while (chunk.size() < bucketSize(chunk.size())) {
+                chunk.add(padding);
+            }
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    private int bucketSize(int size) {
+        for (int bucketSize : BUCKET_SIZES) {
+            if (size <= bucketSize) {
+                return bucketSize;
+            }
+        }
+        return MAX_BUCKET_SIZE;
+    }
+}
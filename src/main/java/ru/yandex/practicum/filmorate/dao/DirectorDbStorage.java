@@ -1,10 +1,14 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.director.DirectorStorage;
 
@@ -17,6 +21,14 @@ import java.util.Objects;
 public class DirectorDbStorage implements DirectorStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
+    private final FilmSearchIndex filmSearchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+
+    @PostConstruct
+    public void warmUpCache() {
+        referenceDataCache.getDirectors().warmUp(loadAll());
+    }
 
     @Override
     public Director addDirector(Director director) {
@@ -31,6 +43,9 @@ public class DirectorDbStorage implements DirectorStorage {
         }, keyHolder);
 
         director.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        referenceDataCache.getDirectors().invalidate(director.getId());
+        filmSearchIndex.putDirector(director.getId(), director.getName());
+        autocompleteIndex.putDirector(director.getId(), director.getName());
 
         return director;
     }
@@ -39,25 +54,20 @@ public class DirectorDbStorage implements DirectorStorage {
     public Director updateDirector(Director director) {
         String updateDirectorSql = "UPDATE director SET name = ? WHERE director_id = ?";
         jdbcTemplate.update(updateDirectorSql, director.getName(), director.getId());
+        referenceDataCache.getDirectors().invalidate(director.getId());
+        filmSearchIndex.putDirector(director.getId(), director.getName());
+        autocompleteIndex.putDirector(director.getId(), director.getName());
         return director;
     }
 
     @Override
     public List<Director> findAll() {
-        String findAllSql = "SELECT * FROM director";
-
-        return jdbcTemplate.query(findAllSql, (rs, rowNum) ->
-                new Director(rs.getLong("director_id"), rs.getString("name")));
+        return referenceDataCache.getDirectors().getAll(this::loadAll);
     }
 
     @Override
     public Director findById(Long id) {
-        String findByIdSql = "SELECT * FROM director WHERE director_id = ?";
-
-        List<Director> directors = jdbcTemplate.query(findByIdSql, (rs, rowNum) ->
-                new Director(rs.getLong("director_id"), rs.getString("name")), id);
-
-        return directors.isEmpty() ? null : directors.get(0);
+        return referenceDataCache.getDirectors().get(id, this::loadById);
     }
 
     @Override
@@ -67,12 +77,29 @@ public class DirectorDbStorage implements DirectorStorage {
 
         String deleteDirectorSql = "DELETE FROM director WHERE director_id = ?";
         jdbcTemplate.update(deleteDirectorSql, id);
+        referenceDataCache.getDirectors().invalidate(id);
+        filmSearchIndex.removeDirector(id);
+        autocompleteIndex.removeDirector(id);
     }
 
     @Override
     public boolean existsById(Long id) {
-        String sql = "SELECT COUNT(*) FROM director WHERE director_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
-        return count != null && count > 0;
+        return findById(id) != null;
+    }
+
+    private List<Director> loadAll() {
+        String findAllSql = "SELECT * FROM director ORDER BY director_id";
+
+        return jdbcTemplate.query(findAllSql, (rs, rowNum) ->
+                new Director(rs.getLong("director_id"), rs.getString("name")));
+    }
+
+    private Director loadById(Long id) {
+        String findByIdSql = "SELECT * FROM director WHERE director_id = ?";
+
+        List<Director> directors = jdbcTemplate.query(findByIdSql, (rs, rowNum) ->
+                new Director(rs.getLong("director_id"), rs.getString("name")), id);
+
+        return directors.isEmpty() ? null : directors.get(0);
     }
-}
\ No newline at end of file
+}
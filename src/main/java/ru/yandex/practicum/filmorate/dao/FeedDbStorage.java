@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Feed;
 import ru.yandex.practicum.filmorate.model.enums.EventType;
 import ru.yandex.practicum.filmorate.model.enums.EventOperation;
@@ -22,22 +23,62 @@ import java.util.List;
 public class FeedDbStorage implements FeedStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final FeedEventWriter feedEventWriter;
 
     @Override
     public void addEvent(Long userId, Long entityId, EventOperation eventOperation, EventType eventType) {
-        String addEventSql = "INSERT INTO feed (user_id, entity_id, timestamp, event_type, event_operation) " +
-                "VALUES (?, ?, ?, ?, ?)";
+        Feed event = new Feed();
+        event.setUserId(userId);
+        event.setEntityId(entityId);
+        event.setTimestamp(Instant.now().toEpochMilli());
+        event.setEventType(eventType);
+        event.setEventOperation(eventOperation);
+        feedEventWriter.write(event);
+    }
 
-        jdbcTemplate.update(addEventSql, userId, entityId, Instant.now().toEpochMilli(), eventType.name(),
-                eventOperation.name());
+    @Override
+    public void addEvents(List<Feed> events) {
+        feedEventWriter.writeNow(events);
     }
 
     @Override
     public List<Feed> findByUser(Long userId) {
-        String findFeedSql = "SELECT * FROM feed WHERE user_id = ? ORDER BY timestamp";
+        feedEventWriter.flush();
+        String findFeedSql = "SELECT * FROM feed WHERE user_id = ? ORDER BY event_id";
         return jdbcTemplate.query(findFeedSql, this::mapToFeed, userId);
     }
 
+    @Override
+    public List<Feed> findPageByUser(Long userId, Long beforeEventId, int limit) {
+        feedEventWriter.flush();
+        String findFeedPageSql = "SELECT * FROM feed WHERE user_id = ? AND event_id < ? " +
+                "ORDER BY event_id DESC LIMIT ?";
+        return jdbcTemplate.query(findFeedPageSql, this::mapToFeed, userId,
+                beforeEventId == null ? Long.MAX_VALUE : beforeEventId, limit);
+    }
+
+    /**
+     * Граница пачки ищется по индексу на {@code timestamp}, а перенос и удаление идут по диапазону
+     * первичного ключа, поэтому стоимость пачки не зависит от размера таблицы.
+     */
+    @Override
+    @Transactional
+    public int archiveOlderThan(long timestamp, int limit) {
+        feedEventWriter.flush();
+        String findBoundarySql = "SELECT MAX(event_id) FROM (SELECT event_id FROM feed WHERE timestamp < ? " +
+                "ORDER BY event_id LIMIT ?)";
+        Long lastEventId = jdbcTemplate.queryForObject(findBoundarySql, Long.class, timestamp, limit);
+        if (lastEventId == null) return 0;
+
+        String archiveSql = "INSERT INTO feed_archive (event_id, user_id, entity_id, timestamp, event_type, " +
+                "event_operation) SELECT event_id, user_id, entity_id, timestamp, event_type, event_operation " +
+                "FROM feed WHERE event_id <= ? AND timestamp < ?";
+        jdbcTemplate.update(archiveSql, lastEventId, timestamp);
+
+        String deleteSql = "DELETE FROM feed WHERE event_id <= ? AND timestamp < ?";
+        return jdbcTemplate.update(deleteSql, lastEventId, timestamp);
+    }
+
     public Feed mapToFeed(ResultSet resultSet, int rowNum) throws SQLException {
         Feed feed = new Feed();
         feed.setEventId(resultSet.getLong("event_id"));
@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Feed;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Пишет события ленты пачками в фоновом потоке. События копятся в ограниченной очереди и сбрасываются,
+ * когда набралось {@code flushSize} штук или прошел {@code flushInterval}. Если очередь заполнена,
+ * вызывающий поток сам сбрасывает ее вместе со своим событием. Внутри транзакции запись идет синхронно,
+ * чтобы событие откатилось вместе с ней.
+ */
+@Slf4j
+@Component
+public class FeedEventWriter {
+
+    private static final String ADD_EVENT_SQL = "INSERT INTO feed (user_id, entity_id, timestamp, event_type, " +
+            "event_operation) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Feed> queue;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final Object writeLock = new Object();
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public FeedEventWriter(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${filmorate.feed.writer.queue-capacity:10000}") int queueCapacity,
+                           @Value("${filmorate.feed.writer.flush-size:500}") int flushSize,
+                           @Value("${filmorate.feed.writer.flush-interval:PT0.1S}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("feed-writer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join();
+        flush();
+    }
+
+    public void write(Feed event) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() || !queue.offer(event)) {
+            writeNow(List.of(event));
+            return;
+        }
+        if (queue.size() >= flushSize) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Записывает события сразу. Вне транзакции перед этим сбрасывается очередь, чтобы не нарушить порядок.
+     */
+    public void writeNow(List<Feed> events) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            insert(events);
+            return;
+        }
+
+        synchronized (writeLock) {
+            flushQueued();
+            insert(events);
+        }
+    }
+
+    /**
+     * Дожидается записи всех поставленных в очередь событий. Вызывается перед чтением ленты.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            flushQueued();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException exception) {
+                log.error("Ошибка фоновой записи ленты", exception);
+            }
+        }
+    }
+
+    private void flushQueued() {
+        while (!queue.isEmpty()) {
+            List<Feed> batch = drain(flushSize);
+            try {
+                insertAtomically(batch);
+            } catch (DataAccessException exception) {
+                log.warn("Не удалось записать пачку из {} событий ленты, запись по одному", batch.size(), exception);
+                batch.forEach(this::insertSingle);
+            }
+        }
+    }
+
+    private void insertAtomically(List<Feed> batch) {
+        transactionTemplate.executeWithoutResult(status -> insert(batch));
+    }
+
+    private void insertSingle(Feed event) {
+        try {
+            insert(List.of(event));
+        } catch (DataAccessException exception) {
+            log.error("Событие ленты пользователя с ID={} потеряно: {}", event.getUserId(), exception.getMessage());
+        }
+    }
+
+    private void insert(List<Feed> batch) {
+        if (batch.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(ADD_EVENT_SQL, batch.stream()
+                .map(event -> new Object[]{event.getUserId(), event.getEntityId(), event.getTimestamp(),
+                        event.getEventType().name(), event.getEventOperation().name()})
+                .toList());
+    }
+
+    private List<Feed> drain(int maxElements) {
+        List<Feed> batch = new ArrayList<>();
+        queue.drainTo(batch, maxElements);
+        return batch;
+    }
+}
@@ -1,18 +1,25 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.ConditionsNotMetException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
 import java.sql.Date;
@@ -21,50 +28,136 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Primary
 @Repository
 @RequiredArgsConstructor
 @Qualifier("filmDbStorage")
 public class FilmDbStorage implements FilmStorage {
 
+    private static final String SELECT_FILM_SQL = "SELECT f.* FROM film f ";
+    private static final String INSERT_FILM_SQL = "INSERT INTO film (name, description, release_date, duration, " +
+            "mpa_id) VALUES (?, ?, ?, ?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
     private final MpaRatingDbStorage mpaRatingDbStorage;
+    private final GenreDbStorage genreDbStorage;
+    private final DirectorDbStorage directorDbStorage;
+    private final PopularityIndex popularityIndex;
+    private final FilmSearchIndex filmSearchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final BatchKeyLoader batchKeyLoader;
+    private final RecommendationEngine recommendationEngine;
+    private final RecommendationCache recommendationCache;
+
+    @PostConstruct
+    public void rebuildIndexes() {
+        Map<Long, Integer> releaseYears = new HashMap<>();
+        Map<Long, Long> likeCounts = new HashMap<>();
+        Map<Long, String> titles = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, name, release_date, like_count FROM film", resultSet -> {
+            long filmId = resultSet.getLong("film_id");
+            releaseYears.put(filmId, resultSet.getDate("release_date").toLocalDate().getYear());
+            likeCounts.put(filmId, resultSet.getLong("like_count"));
+            titles.put(filmId, resultSet.getString("name"));
+        });
+
+        Map<Long, Set<Integer>> genreIds = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, genre_id FROM film_genre", resultSet -> {
+            genreIds.computeIfAbsent(resultSet.getLong("film_id"), k -> new HashSet<>())
+                    .add(resultSet.getInt("genre_id"));
+        });
+
+        popularityIndex.rebuild(releaseYears, genreIds, likeCounts);
+
+        Map<Long, String> directorNames = new HashMap<>();
+        jdbcTemplate.query("SELECT director_id, name FROM director", resultSet -> {
+            directorNames.put(resultSet.getLong("director_id"), resultSet.getString("name"));
+        });
+        List<long[]> directorLinks = new ArrayList<>();
+        jdbcTemplate.query("SELECT film_id, director_id FROM film_director", resultSet -> {
+            directorLinks.add(new long[]{resultSet.getLong("film_id"), resultSet.getLong("director_id")});
+        });
+        filmSearchIndex.rebuild(titles, directorNames, directorLinks);
+        autocompleteIndex.rebuild(titles, directorNames);
+
+        try (Stream<long[]> likes = jdbcTemplate.queryForStream("SELECT film_id, user_id FROM film_like",
+                (resultSet, rowNum) -> new long[]{resultSet.getLong("film_id"), resultSet.getLong("user_id")})) {
+            recommendationEngine.rebuild(likes::iterator);
+        }
+    }
 
     @Override
+    @Transactional
     public Film addFilm(Film film) {
         if (!mpaRatingDbStorage.existsById(film.getMpa().getId())) {
             throw new NotFoundException("MPA рейтинг с ID=" + film.getMpa().getId() + " не найден");
         }
 
-        String insertFilmSql = "INSERT INTO film (name, description, release_date, duration, mpa_id) " +
-                "VALUES (?, ?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
-            PreparedStatement preparedStatement = connection.prepareStatement(insertFilmSql, new String[]{"film_id"});
-            preparedStatement.setString(1, film.getName());
-            preparedStatement.setString(2, film.getDescription());
-            preparedStatement.setDate(3, Date.valueOf(film.getReleaseDate()));
-            preparedStatement.setInt(4, film.getDuration());
-            preparedStatement.setInt(5, film.getMpa().getId());
+            PreparedStatement preparedStatement = connection.prepareStatement(INSERT_FILM_SQL, new String[]{"film_id"});
+            setFilmParameters(preparedStatement, film);
             return preparedStatement;
         }, keyHolder);
 
         film.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
 
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            updateFilmGenres(film);
+        syncFilmLinks("film_genre", "genre_id", film.getId(), genreIdsOf(film), Set.of());
+        syncFilmLinks("film_director", "director_id", film.getId(), directorIdsOf(film), Set.of());
+
+        indexFilm(film);
+
+        return findById(film.getId());
+    }
+
+    /**
+     * Вставляет фильмы одним пакетом в рамках одной транзакции и возвращает их с проставленными ID,
+     * без повторной загрузки из базы. Ссылки на MPA, жанры и режиссеров должны быть проверены заранее.
+     */
+    @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        if (films.isEmpty()) return films;
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_FILM_SQL, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
+                        setFilmParameters(preparedStatement, films.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> genreRows = new ArrayList<>();
+        List<Object[]> directorRows = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            genreIdsOf(film).forEach(genreId -> genreRows.add(new Object[]{film.getId(), genreId}));
+            directorIdsOf(film).forEach(directorId -> directorRows.add(new Object[]{film.getId(), directorId}));
         }
 
-        if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
-            updateFilmDirectors(film);
+        if (!genreRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?)", genreRows);
+        }
+        if (!directorRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_director (film_id, director_id) VALUES (?, ?)", directorRows);
         }
 
-        return findById(film.getId());
+        films.forEach(this::indexFilm);
+        return films;
     }
 
     @Override
+    @Transactional
     public Film updateFilm(Film film) {
         String updateFilmSql = "UPDATE film SET name = ?, description = ?, release_date = ?, duration = ?, " +
                 "mpa_id = ? WHERE film_id = ?";
@@ -79,221 +172,128 @@ public class FilmDbStorage implements FilmStorage {
             throw new NotFoundException("Фильм с ID=" + film.getId() + " не найден");
         }
 
-        updateFilmGenres(film);
-
-        String deleteDirectorSql = "DELETE FROM film_director WHERE film_id = ?";
-        jdbcTemplate.update(deleteDirectorSql, film.getId());
+        syncFilmLinks("film_genre", "genre_id", film.getId(), genreIdsOf(film),
+                findLinkedIds("film_genre", "genre_id", film.getId()));
+        syncFilmLinks("film_director", "director_id", film.getId(), directorIdsOf(film),
+                findLinkedIds("film_director", "director_id", film.getId()));
 
-        if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
-            updateFilmDirectors(film);
-        }
+        indexFilm(film);
 
         return findById(film.getId());
     }
 
     @Override
     public List<Film> findAll() {
-        String findAllSql = "SELECT f.*, mr.name AS mpa_name FROM film f " +
-                "JOIN mpa_rating mr ON f.mpa_id = mr.mpa_id";
-
-        List<Film> films = jdbcTemplate.query(findAllSql, this::mapToFilm);
-
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
+        return findFilms(SELECT_FILM_SQL);
+    }
 
-        return films;
+    @Override
+    public List<Film> findPage(Long afterId, int limit) {
+        return findFilms(SELECT_FILM_SQL + "WHERE f.film_id > ? ORDER BY f.film_id LIMIT ?",
+                afterId == null ? 0 : afterId, limit);
     }
 
     @Override
     public Film findById(Long id) {
-        String findFilmByIdSql = "SELECT f.*, mr.name AS mpa_name FROM film f " +
-                "JOIN mpa_rating mr ON f.mpa_id = mr.mpa_id WHERE f.film_id = ?";
-
-        List<Film> films = jdbcTemplate.query(findFilmByIdSql, this::mapToFilm, id);
+        List<Film> films = findFilms(SELECT_FILM_SQL + "WHERE f.film_id = ?", id);
         if (films.isEmpty()) {
             throw new NotFoundException("Фильм с ID=" + id + " не найден");
         }
 
-        Film film = films.get(0);
-        loadGenresForFilm(film);
-        loadLikesForFilm(film);
+        return films.get(0);
+    }
 
-        return film;
+    @Override
+    public boolean existsById(Long id) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM film WHERE film_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
     }
 
     @Override
+    @Transactional
     public void addLike(Long filmId, Long userId) {
-        String checkSql = "SELECT COUNT(*) FROM film_like WHERE film_id = ? AND user_id = ?";
+        String insertLikeSql = "INSERT INTO film_like (film_id, user_id) SELECT ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM film_like WHERE film_id = ? AND user_id = ?)";
+
+        int inserted;
+        try {
+            inserted = jdbcTemplate.update(insertLikeSql, filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException exception) {
+            inserted = 0;
+        }
 
-        Integer count = jdbcTemplate.queryForObject(checkSql, Integer.class, filmId, userId);
-        if (count != null && count == 0) {
-            String insertLikeSql = "INSERT INTO film_like (film_id, user_id) VALUES (?, ?)";
-            jdbcTemplate.update(insertLikeSql, filmId, userId);
+        if (inserted > 0) {
+            jdbcTemplate.update("UPDATE film SET like_count = like_count + 1 WHERE film_id = ?", filmId);
+            AfterCommit.run(() -> {
+                popularityIndex.changeLikes(filmId, 1);
+                recommendationEngine.addLike(filmId, userId);
+            });
         }
     }
 
     @Override
+    @Transactional
     public void removeLike(Long filmId, Long userId) {
         String removeLikeSql = "DELETE FROM film_like WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(removeLikeSql, filmId, userId);
-    }
-
-    @Override
-    public List<Film> findPopular(Integer count, Integer genreId, Integer year) {
-        StringBuilder sql = new StringBuilder(
-                "SELECT f.*, mr.name AS mpa_name, COUNT(fl.user_id) AS like_count " +
-                        "FROM film f " +
-                        "JOIN mpa_rating mr ON f.mpa_id = mr.mpa_id " +
-                        "LEFT JOIN film_like fl ON f.film_id = fl.film_id "
-        );
-
-        List<Object> parameters = new ArrayList<>();
-        List<String> conditions = new ArrayList<>();
-
-        if (genreId != null) {
-            sql.append(
-                    "LEFT JOIN film_genre fg ON f.film_id = fg.film_id " +
-                            "LEFT JOIN genre g ON fg.genre_id = g.genre_id "
-            );
-            conditions.add("g.genre_id = ?");
-            parameters.add(genreId);
-        }
-
-        if (year != null) {
-            conditions.add("YEAR(f.release_date) = ?");
-            parameters.add(year);
-        }
 
-        if (!conditions.isEmpty()) {
-            sql.append("WHERE ");
-            sql.append(String.join(" AND ", conditions));
+        if (jdbcTemplate.update(removeLikeSql, filmId, userId) > 0) {
+            jdbcTemplate.update("UPDATE film SET like_count = like_count - 1 WHERE film_id = ?", filmId);
+            AfterCommit.run(() -> {
+                popularityIndex.changeLikes(filmId, -1);
+                recommendationEngine.removeLike(filmId, userId);
+            });
         }
+    }
 
-        sql.append(
-                "GROUP BY f.film_id " +
-                        "ORDER BY like_count DESC " +
-                        "LIMIT ?"
-        );
-        parameters.add(count);
-
-        List<Film> films = jdbcTemplate.query(sql.toString(), this::mapToFilm, parameters.toArray());
-
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
+    @Override
+    public List<Long> findLikes(Long filmId, Long afterUserId, int limit) {
+        String findLikesSql = "SELECT user_id FROM film_like WHERE film_id = ? AND user_id > ? " +
+                "ORDER BY user_id LIMIT ?";
 
-        return films;
+        return jdbcTemplate.queryForList(findLikesSql, Long.class, filmId,
+                afterUserId == null ? 0 : afterUserId, limit);
     }
 
+    @Override
+    public List<Film> findPopular(Integer count, Integer genreId, Integer year) {
+        return findByIds(popularityIndex.findTop(count, genreId, year));
+    }
 
     @Override
     public List<Film> getFilmsQuery(String query, List<String> by) {
-        StringBuilder basicSqlQuery = new StringBuilder(
-                "SELECT f.*, mr.name AS mpa_name, COUNT(fl.user_id) AS like_count " +
-                        "FROM film f " +
-                        "JOIN mpa_rating mr ON f.mpa_id = mr.mpa_id " +
-                        "LEFT JOIN film_like fl ON f.film_id = fl.film_id "
-        );
-
-        List<Object> parameters = new ArrayList<>();
-        List<String> conditions = new ArrayList<>();
-
-        if (by != null && query != null) {
-            String lowerQuery = "%" + query.toLowerCase() + "%";
-            if (by.contains("director")) {
-                basicSqlQuery.append(
-                        "LEFT JOIN film_director fd ON f.film_id = fd.film_id " +
-                                "LEFT JOIN director d ON fd.director_id = d.director_id "
-                );
-                conditions.add("LOWER(d.name) LIKE ?");
-                parameters.add(lowerQuery);
-            }
-
-            if (by.contains("title")) {
-                conditions.add("LOWER(f.name) LIKE ?");
-                parameters.add(lowerQuery);
-            }
-        }
-
-        if (!conditions.isEmpty()) {
-            basicSqlQuery.append("WHERE ");
-            basicSqlQuery.append(String.join(" OR ", conditions));
+        if (by == null || query == null || !(by.contains("title") || by.contains("director"))) {
+            return findByIds(filmSearchIndex.findAll());
         }
 
-        basicSqlQuery.append(" GROUP BY f.film_id, mpa_name ORDER BY like_count DESC");
-
-        List<Film> films = jdbcTemplate.query(basicSqlQuery.toString(), this::mapToFilm, parameters.toArray());
-
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
-
-        return films;
-
+        return findByIds(filmSearchIndex.search(query, by.contains("title"), by.contains("director")));
     }
 
     @Override
     public List<Film> findFilmsByDirectorSorted(Long directorId, String sortBy) {
         String orderBy;
         switch (sortBy.toLowerCase()) {
-            case "likes" -> orderBy = "COUNT(fl.user_id) DESC";
+            case "likes" -> orderBy = "f.like_count DESC";
             case "year" -> orderBy = "f.release_date";
             default -> throw new ConditionsNotMetException("Параметр сортировки " + sortBy + " недоступен");
         }
 
-        String sql = "SELECT f.*, mr.name AS mpa_name " +
-                "FROM film f " +
-                "JOIN mpa_rating mr ON f.mpa_id = mr.mpa_id " +
-                "LEFT JOIN film_like fl ON f.film_id = fl.film_id " +
+        String sql = SELECT_FILM_SQL +
                 "JOIN film_director fd ON f.film_id = fd.film_id " +
                 "WHERE fd.director_id = ? " +
-                "GROUP BY f.film_id " +
                 "ORDER BY " + orderBy;
 
-        List<Film> films = jdbcTemplate.query(sql, this::mapToFilm, directorId);
-
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
-
-        return films;
+        return findFilms(sql, directorId);
     }
 
     public List<Film> getRecommendations(Long userId) {
-        String similarUserQuery =
-                "SELECT f2.user_id " +
-                        "FROM film_like f1 " +
-                        "JOIN film_like f2 ON f1.film_id = f2.film_id " +
-                        "WHERE f1.user_id = ? AND f2.user_id <> f1.user_id " +
-                        "GROUP BY f2.user_id " +
-                        "ORDER BY COUNT(*) DESC " +
-                        "LIMIT 1 ";
-
-        List<Long> similarUsers = jdbcTemplate.query(similarUserQuery, (resultSet, rowNum) ->
-                resultSet.getLong("user_id"), userId);
-
-        if (similarUsers.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        Long similarUserId = similarUsers.get(0);
-
-        String recommendationFilmsQuery =
-                "SELECT f.*, mr.name AS mpa_name, COUNT(fl.user_id) AS like_count " +
-                        "FROM film f " +
-                        "JOIN mpa_rating mr ON f.mpa_id = mr.mpa_id " +
-                        "JOIN film_like fl ON f.film_id = fl.film_id AND fl.user_id = ?" +
-                        "LEFT JOIN film_like ml ON f.film_id = ml.film_id AND ml.user_id = ? " +
-                        "WHERE ml.user_id IS NULL " +
-                        "GROUP BY f.film_id, mr.name";
-
-        List<Film> films = jdbcTemplate.query(recommendationFilmsQuery, this::mapToFilm, similarUserId, userId);
-
-        loadLikesForFilms(films);
-        loadGenresForFilms(films);
-
-        return films;
+        return findByIds(recommendationCache.getRecommendations(userId));
     }
 
     @Override
+    @Transactional
     public void deleteById(Long filmId) {
+        jdbcTemplate.update("DELETE FROM film_director WHERE film_id = ?", filmId);
+
         String deleteFilmFromGenreTableSql = "DELETE FROM film_genre WHERE film_id = ?";
         jdbcTemplate.update(deleteFilmFromGenreTableSql, filmId);
 
@@ -302,6 +302,13 @@ public class FilmDbStorage implements FilmStorage {
 
         String deleteFilmByIdSql = "DELETE FROM film WHERE film_id = ?";
         jdbcTemplate.update(deleteFilmByIdSql, filmId);
+
+        AfterCommit.run(() -> {
+            popularityIndex.removeFilm(filmId);
+            filmSearchIndex.removeFilm(filmId);
+            autocompleteIndex.removeFilm(filmId);
+            recommendationEngine.removeFilm(filmId);
+        });
     }
 
     private Film mapToFilm(ResultSet resultSet, int rowNum) throws SQLException {
@@ -312,133 +319,147 @@ public class FilmDbStorage implements FilmStorage {
         film.setReleaseDate(resultSet.getDate("release_date").toLocalDate());
         film.setDuration(resultSet.getInt("duration"));
 
-        MpaRating mpa = mpaRatingDbStorage.findById(resultSet.getInt("mpa_id"));
-        film.setMpa(mpa);
+        film.setMpa(mpaRatingDbStorage.findById(resultSet.getInt("mpa_id")));
 
         film.setGenres(new TreeSet<>(Comparator.comparing(Genre::getId)));
-        film.setLikes(new HashSet<>());
-        film.setDirectors(loadDirectors(film.getId()));
+        film.setLikeCount(resultSet.getLong("like_count"));
+        film.setDirectors(new HashSet<>());
 
         return film;
     }
 
-    private void updateFilmGenres(Film film) {
-        jdbcTemplate.update("DELETE FROM film_genre WHERE film_id = ?", film.getId());
+    /**
+     * Загружает фильмы вместе с жанрами и режиссерами за фиксированное число запросов:
+     * один запрос на сами фильмы и по одному пакетному запросу на каждую дочернюю коллекцию,
+     * независимо от количества строк в выборке. MPA, жанры и режиссеры берутся из кэша справочников.
+     */
+    private List<Film> findFilms(String sql, Object... parameters) {
+        List<Film> films = jdbcTemplate.query(sql, this::mapToFilm, parameters);
 
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            String sql = "INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?)";
-            Set<Integer> addedGenreIds = new HashSet<>();
+        loadGenresForFilms(films);
+        loadDirectorsForFilms(films);
 
-            for (Genre genre : film.getGenres()) {
-                if (!addedGenreIds.contains(genre.getId())) {
-                    jdbcTemplate.update(sql, film.getId(), genre.getId());
-                    addedGenreIds.add(genre.getId());
-                }
-            }
-        }
+        return films;
     }
 
-    private void loadGenresForFilm(Film film) {
-        String sql = "SELECT g.* FROM genre g " +
-                "JOIN film_genre fg ON g.genre_id = fg.genre_id " +
-                "WHERE fg.film_id = ?";
-
-        List<Genre> genres = jdbcTemplate.query(sql, (resultSet, rowNum) ->
-                new Genre(resultSet.getInt("genre_id"),
-                        resultSet.getString("name")), film.getId());
+    private List<Film> findByIds(List<Long> ids) {
+        List<Film> films = batchKeyLoader.query(SELECT_FILM_SQL + "WHERE f.film_id IN (%s)", ids, this::mapToFilm);
 
-        film.getGenres().addAll(genres);
-    }
-
-    private void loadGenresForFilms(List<Film> films) {
-        if (films.isEmpty()) return;
+        loadGenresForFilms(films);
+        loadDirectorsForFilms(films);
 
-        String sql = "SELECT fg.film_id, g.genre_id, g.name FROM genre g " +
-                "JOIN film_genre fg ON g.genre_id = fg.genre_id " +
-                "WHERE fg.film_id IN (" +
-                String.join(",", Collections.nCopies(films.size(), "?")) + ")";
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, film -> film));
 
-        List<Long> filmIds = films.stream()
-                .map(Film::getId)
+        return ids.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .distinct()
                 .collect(Collectors.toList());
+    }
 
-        Map<Long, List<Genre>> filmGenres = new HashMap<>();
-
-        jdbcTemplate.query(sql, preparedStatement -> {
-            for (int i = 0; i < filmIds.size(); i++) {
-                preparedStatement.setLong(i + 1, filmIds.get(i));
-            }
-        }, resultSet -> {
-            Long filmId = resultSet.getLong("film_id");
-            Genre genre = new Genre();
-            genre.setId(resultSet.getInt("genre_id"));
-            genre.setName(resultSet.getString("name"));
-            filmGenres.computeIfAbsent(filmId, k -> new ArrayList<>()).add(genre);
-        });
+    private void setFilmParameters(PreparedStatement preparedStatement, Film film) throws SQLException {
+        preparedStatement.setString(1, film.getName());
+        preparedStatement.setString(2, film.getDescription());
+        preparedStatement.setDate(3, Date.valueOf(film.getReleaseDate()));
+        preparedStatement.setInt(4, film.getDuration());
+        preparedStatement.setInt(5, film.getMpa().getId());
+    }
 
-        films.forEach(film -> {
-            List<Genre> genres = filmGenres.getOrDefault(film.getId(), new ArrayList<>());
-            film.getGenres().addAll(genres);
+    private void indexFilm(Film film) {
+        long filmId = film.getId();
+        int year = film.getReleaseDate().getYear();
+        String name = film.getName();
+        Set<Integer> genreIds = film.getGenres() == null ? Set.of() : film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        Set<Long> directorIds = directorIdsOf(film);
+
+        AfterCommit.run(() -> {
+            popularityIndex.putFilm(filmId, year, genreIds);
+            filmSearchIndex.putFilm(filmId, name, directorIds);
+            autocompleteIndex.putFilm(filmId, name);
         });
     }
 
-    private void loadLikesForFilm(Film film) {
-        String sql = "SELECT user_id FROM film_like WHERE film_id = ?";
-
-        List<Long> likes = jdbcTemplate.query(sql, (resultSet, rowNum) ->
-                resultSet.getLong("user_id"), film.getId());
-        film.getLikes().addAll(likes);
+    private Set<Long> genreIdsOf(Film film) {
+        if (film.getGenres() == null) return Set.of();
+        return film.getGenres().stream()
+                .map(genre -> (long) genre.getId())
+                .collect(Collectors.toSet());
     }
 
-    private void loadLikesForFilms(List<Film> films) {
-        String sql = "SELECT film_id, user_id FROM film_like WHERE film_id IN (" +
-                String.join(",", Collections.nCopies(films.size(), "?")) + ")";
-
-        List<Long> filmIds = films.stream()
-                .map(Film::getId)
-                .collect(Collectors.toList());
-
-        Map<Long, Set<Long>> filmLikes = new HashMap<>();
+    private Set<Long> directorIdsOf(Film film) {
+        if (film.getDirectors() == null) return Set.of();
+        return film.getDirectors().stream()
+                .map(Director::getId)
+                .collect(Collectors.toSet());
+    }
 
-        jdbcTemplate.query(sql, preparedStatement -> {
-            for (int i = 0; i < filmIds.size(); i++) {
-                preparedStatement.setLong(i + 1, filmIds.get(i));
-            }
-        }, (resultSet) -> {
-            Long filmId = resultSet.getLong("film_id");
-            Long userId = resultSet.getLong("user_id");
-            filmLikes.computeIfAbsent(filmId, k -> new HashSet<>()).add(userId);
-        });
+    private Set<Long> findLinkedIds(String table, String column, Long filmId) {
+        String sql = "SELECT " + column + " FROM " + table + " WHERE film_id = ?";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, filmId));
+    }
 
-        films.forEach(film -> {
-            Set<Long> likes = filmLikes.getOrDefault(film.getId(), new HashSet<>());
-            film.getLikes().addAll(likes);
-        });
+    /**
+     * Приводит связи фильма к нужному набору: вставляет недостающие и удаляет лишние строки
+     * двумя пакетными запросами, не трогая совпадающие.
+     */
+    private void syncFilmLinks(String table, String column, Long filmId, Set<Long> targetIds, Set<Long> currentIds) {
+        List<Object[]> added = targetIds.stream()
+                .filter(id -> !currentIds.contains(id))
+                .map(id -> new Object[]{filmId, id})
+                .toList();
+        List<Object[]> removed = currentIds.stream()
+                .filter(id -> !targetIds.contains(id))
+                .map(id -> new Object[]{filmId, id})
+                .toList();
+
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE film_id = ? AND " + column + " = ?", removed);
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (film_id, " + column + ") VALUES (?, ?)", added);
+        }
     }
 
-    private void updateFilmDirectors(Film film) {
-        jdbcTemplate.update("DELETE FROM film_director WHERE film_id = ?", film.getId());
+    private void loadGenresForFilms(List<Film> films) {
+        if (films.isEmpty()) return;
 
-        String insertSql = "INSERT INTO film_director (film_id, director_id) VALUES (?, ?)";
-        for (Director director : film.getDirectors()) {
-            jdbcTemplate.update(insertSql, film.getId(), director.getId());
-        }
+        String sql = "SELECT film_id, genre_id FROM film_genre WHERE film_id IN (%s)";
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, film -> film, (first, second) -> first));
+
+        batchKeyLoader.query(sql, filmsById.keySet(), (resultSet, rowNum) ->
+                        Map.entry(resultSet.getLong("film_id"), resultSet.getInt("genre_id")))
+                .forEach(row -> {
+                    Genre genre = genreDbStorage.findById(row.getValue());
+                    if (genre != null) {
+                        filmsById.get(row.getKey()).getGenres().add(genre);
+                    }
+                });
     }
 
-    private Set<Director> loadDirectors(Long filmId) {
-        String sql = "SELECT d.director_id, d.name FROM film_director fd " +
-                "JOIN director d ON fd.director_id = d.director_id " +
-                "WHERE fd.film_id = ?";
+    private void loadDirectorsForFilms(List<Film> films) {
+        if (films.isEmpty()) return;
 
-        return new HashSet<>(jdbcTemplate.query(sql, (resultSet, rowNum) ->
-                new Director(resultSet.getLong("director_id"),
-                        resultSet.getString("name")), filmId));
+        String sql = "SELECT film_id, director_id FROM film_director WHERE film_id IN (%s)";
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, film -> film, (first, second) -> first));
+
+        batchKeyLoader.query(sql, filmsById.keySet(), (resultSet, rowNum) ->
+                        Map.entry(resultSet.getLong("film_id"), resultSet.getLong("director_id")))
+                .forEach(row -> {
+                    Director director = directorDbStorage.findById(row.getValue());
+                    if (director != null) {
+                        filmsById.get(row.getKey()).getDirectors().add(director);
+                    }
+                });
     }
 
     @Override
     public List<Film> getCommonFilmsWithFriend(Long userId, Long friendId) {
-        String sql = "SELECT f.* " +
-                "FROM film f " +
+        String sql = SELECT_FILM_SQL +
                 "WHERE f.film_id IN (" +
                 "   SELECT film_id " +
                 "   FROM film_like " +
@@ -447,11 +468,6 @@ public class FilmDbStorage implements FilmStorage {
                 "   HAVING COUNT(DISTINCT user_id) = 2" +
                 ")";
 
-        List<Film> films = jdbcTemplate.query(sql, this::mapToFilm, userId, friendId);
-
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
-
-        return films;
+        return findFilms(sql, userId, friendId);
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.sql.ResultSet;
@@ -14,13 +16,31 @@ import java.util.List;
 public class GenreDbStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
+
+    @PostConstruct
+    public void warmUpCache() {
+        referenceDataCache.getGenres().warmUp(loadAll());
+    }
 
     public List<Genre> findAll() {
-        String sql = "SELECT * FROM genre";
-        return jdbcTemplate.query(sql, this::mapToGenre);
+        return referenceDataCache.getGenres().getAll(this::loadAll);
     }
 
     public Genre findById(int id) {
+        return referenceDataCache.getGenres().get(id, this::loadById);
+    }
+
+    public boolean existsById(int id) {
+        return findById(id) != null;
+    }
+
+    private List<Genre> loadAll() {
+        String sql = "SELECT * FROM genre ORDER BY genre_id";
+        return jdbcTemplate.query(sql, this::mapToGenre);
+    }
+
+    private Genre loadById(int id) {
         String findByIdSql = "SELECT * FROM genre WHERE genre_id = ?";
         List<Genre> genres = jdbcTemplate.query(findByIdSql, this::mapToGenre, id);
         return genres.isEmpty() ? null : genres.get(0);
@@ -29,4 +49,4 @@ public class GenreDbStorage {
     private Genre mapToGenre(ResultSet resultSet, int rowNum) throws SQLException {
         return new Genre(resultSet.getInt("genre_id"), resultSet.getString("name"));
     }
-}
\ No newline at end of file
+}
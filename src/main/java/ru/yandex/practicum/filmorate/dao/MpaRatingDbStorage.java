@@ -1,8 +1,10 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
 import java.sql.ResultSet;
@@ -14,13 +16,31 @@ import java.util.List;
 public class MpaRatingDbStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
+
+    @PostConstruct
+    public void warmUpCache() {
+        referenceDataCache.getMpaRatings().warmUp(loadAll());
+    }
 
     public List<MpaRating> findAll() {
-        String sql = "SELECT * FROM mpa_rating";
-        return jdbcTemplate.query(sql, this::mapToMpa);
+        return referenceDataCache.getMpaRatings().getAll(this::loadAll);
     }
 
     public MpaRating findById(int id) {
+        return referenceDataCache.getMpaRatings().get(id, this::loadById);
+    }
+
+    public boolean existsById(int id) {
+        return findById(id) != null;
+    }
+
+    private List<MpaRating> loadAll() {
+        String sql = "SELECT * FROM mpa_rating ORDER BY mpa_id";
+        return jdbcTemplate.query(sql, this::mapToMpa);
+    }
+
+    private MpaRating loadById(int id) {
         String findByIdSql = "SELECT * FROM mpa_rating WHERE mpa_id = ?";
         List<MpaRating> ratings = jdbcTemplate.query(findByIdSql, this::mapToMpa, id);
         return ratings.isEmpty() ? null : ratings.get(0);
@@ -29,10 +49,4 @@ public class MpaRatingDbStorage {
     private MpaRating mapToMpa(ResultSet resultSet, int rowNum) throws SQLException {
         return new MpaRating(resultSet.getInt("mpa_id"), resultSet.getString("name"));
     }
-
-    public boolean existsById(int id) {
-        String sql = "SELECT COUNT(*) FROM mpa_rating WHERE mpa_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
-        return count != null && count > 0;
-    }
-}
\ No newline at end of file
+}
@@ -5,12 +5,16 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.ReviewRankingCache;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Review;
 import ru.yandex.practicum.filmorate.storage.review.ReviewStorage;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,7 +22,12 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class ReviewDbStorage implements ReviewStorage {
 
+    private static final Comparator<Review> BY_USEFUL = Comparator.comparingInt(Review::getUseful).reversed()
+            .thenComparing(Review::getReviewId);
+
     private final JdbcTemplate jdbcTemplate;
+    private final ReviewUsefulAccumulator usefulAccumulator;
+    private final ReviewRankingCache rankingCache;
 
     @Override
     public Review addReview(Review review) {
@@ -38,6 +47,8 @@ public class ReviewDbStorage implements ReviewStorage {
         }, keyHolder);
 
         review.setReviewId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        rankingCache.getReviewFilms().put(review.getReviewId(), review.getFilmId());
+        rankingCache.invalidateFilm(review.getFilmId());
 
         return review;
     }
@@ -46,96 +57,133 @@ public class ReviewDbStorage implements ReviewStorage {
     public Review updateReview(Review review) {
         String updateReviewSql = "UPDATE review SET content = ?, is_positive = ? WHERE review_id = ?";
         jdbcTemplate.update(updateReviewSql, review.getContent(), review.getIsPositive(), review.getReviewId());
+        invalidateFilmOf(review.getReviewId());
         return findById(review.getReviewId());
     }
 
-    @Override
-    public List<Review> findAll(int count) {
-        String findAllSql = "SELECT r.*, COALESCE(SUM(rl.is_useful), 0) AS useful " +
-                "FROM review r " +
-                " LEFT JOIN review_like rl ON r.review_id = rl.review_id " +
-                "GROUP BY r.review_id " +
-                "ORDER BY useful DESC " +
-                "LIMIT ?";
-
-        return jdbcTemplate.query(findAllSql, this::mapToReview, count);
-    }
-
     @Override
     public Review findById(Long reviewId) {
         String findByIdSql = "SELECT * FROM review WHERE review_id = ?";
-        List<Review> reviews = jdbcTemplate.query(findByIdSql, this::mapToReview, reviewId);
+        List<Review> reviews = usefulAccumulator.read(() -> jdbcTemplate.query(findByIdSql, this::mapToReview,
+                reviewId));
         return reviews.isEmpty() ? null : reviews.get(0);
     }
 
+    /**
+     * Первая страница отзывов фильма берется из кэша лучших отзывов, остальные читаются диапазоном
+     * индекса {@code (film_id, useful DESC, review_id)} или {@code (useful DESC, review_id)}.
+     */
     @Override
-    public List<Review> findAllByFilmId(Long filmId, int count) {
-        String findByFilmIdSql = filmId != null
-                ? "SELECT * FROM review WHERE film_id = ? ORDER BY useful DESC LIMIT ?"
-                : "SELECT * FROM review ORDER BY useful DESC LIMIT ?";
-
-        return filmId != null
-                ? jdbcTemplate.query(findByFilmIdSql, this::mapToReview, filmId, count)
-                : jdbcTemplate.query(findByFilmIdSql, this::mapToReview, count);
+    public List<Review> findRanked(Long filmId, Long afterReviewId, int count) {
+        int topSize = rankingCache.getTopSize();
+        if (filmId == null || afterReviewId != null || count > topSize) {
+            return usefulAccumulator.read(() -> findRankedPage(filmId, afterReviewId, count));
+        }
+
+        List<Review> top = rankingCache.getFilmTops().get(filmId,
+                id -> usefulAccumulator.read(() -> findRankedPage(id, null, topSize)));
+        return new ArrayList<>(top.subList(0, Math.min(count, top.size())));
     }
 
     @Override
     public void deleteById(Long reviewId) {
+        invalidateFilmOf(reviewId);
         String deleteByIdSql = "DELETE FROM review WHERE review_id = ?";
         jdbcTemplate.update(deleteByIdSql, reviewId);
+        usefulAccumulator.discard(reviewId);
+        rankingCache.getReviewFilms().invalidate(reviewId);
     }
 
     @Override
     public void addLike(Long reviewId, Long userId) {
-        removeReaction(reviewId, userId);
-
-        String addLikeSql = "INSERT INTO review_like (review_id, user_id, is_useful) VALUES (?, ?, TRUE)";
-        jdbcTemplate.update(addLikeSql, reviewId, userId);
-
-        incrementUseful(reviewId);
+        react(reviewId, userId, true);
     }
 
     @Override
     public void addDislike(Long reviewId, Long userId) {
-        removeReaction(reviewId, userId);
-
-        String addDislikeSql = "INSERT INTO review_like (review_id, user_id, is_useful) VALUES (?, ?, FALSE)";
-        jdbcTemplate.update(addDislikeSql, reviewId, userId);
-
-        decrementUseful(reviewId);
+        react(reviewId, userId, false);
     }
 
+    /**
+     * Реакция удаляется одним запросом, который заодно возвращает удаленную строку.
+     */
     @Override
     public void removeReaction(Long reviewId, Long userId) {
-        Boolean wasUseful = getRatingType(reviewId, userId);
-        jdbcTemplate.update("DELETE FROM review_like WHERE review_id = ? AND user_id = ?", reviewId, userId);
-
-        if (wasUseful != null) {
-            if (wasUseful) {
-                decrementUseful(reviewId);
-            } else {
-                incrementUseful(reviewId);
-            }
+        String removeReactionSql = "SELECT is_useful FROM OLD TABLE (" +
+                "DELETE FROM review_like WHERE review_id = ? AND user_id = ?)";
+        List<Boolean> previous = jdbcTemplate.queryForList(removeReactionSql, Boolean.class, reviewId, userId);
+
+        if (!previous.isEmpty()) {
+            usefulAccumulator.add(reviewId, -score(previous));
+            invalidateFilmOf(reviewId);
         }
     }
 
-    private Boolean getRatingType(Long reviewId, Long userId) {
-        String sql = "SELECT is_useful FROM review_like WHERE review_id = ? AND user_id = ?";
+    /**
+     * Реакция ставится одним {@code MERGE}, который возвращает прежнее значение строки, поэтому
+     * разница рейтинга считается без отдельного чтения и повторный голос ничего не меняет.
+     */
+    private void react(Long reviewId, Long userId, boolean useful) {
+        String mergeReactionSql = "SELECT is_useful FROM OLD TABLE (" +
+                "MERGE INTO review_like (review_id, user_id, is_useful) KEY (review_id, user_id) VALUES (?, ?, ?))";
+        List<Boolean> previous = jdbcTemplate.queryForList(mergeReactionSql, Boolean.class, reviewId, userId, useful);
+
+        long delta = (useful ? 1 : -1) - score(previous);
+        if (delta != 0) {
+            usefulAccumulator.add(reviewId, delta);
+            invalidateFilmOf(reviewId);
+        }
+    }
 
-        List<Boolean> result = jdbcTemplate.query(sql,
-                (rs, rowNum) -> rs.getBoolean("is_useful"), reviewId, userId);
+    /**
+     * Страница строится по записанному в базу рейтингу, курсор — пара {@code (useful, review_id)} последнего
+     * отзыва предыдущей страницы. Внутри страницы порядок уточняется с учетом еще не записанных голосов.
+     */
+    private List<Review> findRankedPage(Long filmId, Long afterReviewId, int count) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM review WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (filmId != null) {
+            sql.append(" AND film_id = ?");
+            args.add(filmId);
+        }
+        if (afterReviewId != null) {
+            int afterUseful = findStoredUseful(afterReviewId);
+            sql.append(" AND useful <= ? AND (useful < ? OR review_id > ?)");
+            args.add(afterUseful);
+            args.add(afterUseful);
+            args.add(afterReviewId);
+        }
+        sql.append(" ORDER BY useful DESC, review_id LIMIT ?");
+        args.add(count);
 
-        return result.isEmpty() ? null : result.get(0);
+        List<Review> reviews = jdbcTemplate.query(sql.toString(), this::mapToReview, args.toArray());
+        reviews.sort(BY_USEFUL);
+        return reviews;
     }
 
-    private void incrementUseful(Long reviewId) {
-        String incrementUsefulSql = "UPDATE review SET useful = useful + 1 WHERE review_id = ?";
-        jdbcTemplate.update(incrementUsefulSql, reviewId);
+    private int findStoredUseful(Long reviewId) {
+        List<Integer> useful = jdbcTemplate.queryForList("SELECT useful FROM review WHERE review_id = ?",
+                Integer.class, reviewId);
+        if (useful.isEmpty()) {
+            throw new NotFoundException("Отзыв с ID=" + reviewId + " не найден");
+        }
+        return useful.get(0);
+    }
+
+    private void invalidateFilmOf(Long reviewId) {
+        Long filmId = rankingCache.getReviewFilms().get(reviewId, id -> {
+            List<Long> filmIds = jdbcTemplate.queryForList("SELECT film_id FROM review WHERE review_id = ?",
+                    Long.class, id);
+            return filmIds.isEmpty() ? null : filmIds.get(0);
+        });
+        if (filmId != null) {
+            rankingCache.invalidateFilm(filmId);
+        }
     }
 
-    private void decrementUseful(Long reviewId) {
-        String decrementUsefulSql = "UPDATE review SET useful = useful - 1 WHERE review_id = ?";
-        jdbcTemplate.update(decrementUsefulSql, reviewId);
+    private static int score(List<Boolean> reactions) {
+        if (reactions.isEmpty()) return 0;
+        return reactions.get(0) ? 1 : -1;
     }
 
     private Review mapToReview(ResultSet resultSet, int rowNum) throws SQLException {
@@ -145,7 +193,7 @@ public class ReviewDbStorage implements ReviewStorage {
         review.setUserId(resultSet.getLong("user_id"));
         review.setContent(resultSet.getString("content"));
         review.setIsPositive(resultSet.getBoolean("is_positive"));
-        review.setUseful(resultSet.getInt("useful"));
+        review.setUseful((int) (resultSet.getInt("useful") + usefulAccumulator.getPending(review.getReviewId())));
 
         return review;
     }
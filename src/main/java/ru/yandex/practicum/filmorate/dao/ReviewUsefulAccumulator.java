@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.ReviewRankingCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Накопитель изменений рейтинга полезности отзывов. Голоса складываются в {@link LongAdder} отзыва,
+ * который разносит конкурентные добавления по ячейкам, поэтому голоса за популярный отзыв не ждут
+ * блокировку строки {@code review}. Накопленные разницы периодически записываются одним пакетом в одной
+ * транзакции; голоса и чтение отделены от записи пакета блокировкой чтения-записи, чтобы читатель не учел
+ * разницу дважды, а голос не попал в уже выгруженный счетчик. После записи сбрасываются закэшированные
+ * списки лучших отзывов, порядок в которых мог измениться. Рейтинг, разошедшийся с голосами из-за
+ * потерянных при остановке разниц, пересчитывается по {@code review_like} при запуске.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReviewUsefulAccumulator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReviewRankingCache rankingCache;
+
+    private final Map<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void reconcile() {
+        String reconcileSql = "UPDATE review r SET useful = (SELECT COALESCE(SUM(CASE WHEN l.is_useful " +
+                "THEN 1 ELSE -1 END), 0) FROM review_like l WHERE l.review_id = r.review_id) " +
+                "WHERE useful <> (SELECT COALESCE(SUM(CASE WHEN l.is_useful THEN 1 ELSE -1 END), 0) " +
+                "FROM review_like l WHERE l.review_id = r.review_id)";
+        int reconciled = jdbcTemplate.update(reconcileSql);
+        if (reconciled > 0) {
+            log.warn("Рейтинг полезности пересчитан по оценкам для {} отзывов", reconciled);
+        }
+    }
+
+    public void add(long reviewId, long delta) {
+        if (delta == 0) return;
+
+        flushLock.readLock().lock();
+        try {
+            accumulate(reviewId, delta);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Выполняет чтение рейтинга из базы, не пересекаясь с записью пакета. Внутри {@code query}
+     * к значению из базы нужно прибавить {@link #getPending(long)}.
+     */
+    public <T> T read(Supplier<T> query) {
+        flushLock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Изменение рейтинга, еще не записанное в базу.
+     */
+    public long getPending(long reviewId) {
+        LongAdder delta = deltas.get(reviewId);
+        return delta == null ? 0 : delta.sum();
+    }
+
+    public void discard(long reviewId) {
+        deltas.remove(reviewId);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${filmorate.reviews.useful-flush-interval:PT1S}")
+    public void flush() {
+        List<Object[]> updates = new ArrayList<>();
+        flushLock.writeLock().lock();
+        try {
+            deltas.forEach((reviewId, adder) -> {
+                long delta = adder.sum();
+                if (delta != 0) {
+                    updates.add(new Object[]{delta, reviewId});
+                }
+            });
+            deltas.clear();
+            if (updates.isEmpty()) return;
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE review SET useful = useful + ? WHERE review_id = ?", updates));
+            } catch (DataAccessException exception) {
+                updates.forEach(update -> accumulate((Long) update[1], (Long) update[0]));
+                throw exception;
+            }
+            log.debug("Записан рейтинг полезности для {} отзывов", updates.size());
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        rankingCache.invalidateReviews(updates.stream().map(update -> (Long) update[1]).toList());
+    }
+
+    private void accumulate(long reviewId, long delta) {
+        deltas.computeIfAbsent(reviewId, k -> new LongAdder()).add(delta);
+    }
+}
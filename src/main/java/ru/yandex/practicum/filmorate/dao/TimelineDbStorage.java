@@ -0,0 +1,220 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.SortedLongArrays;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.storage.timeline.TimelineStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Лента событий друзей по гибридной схеме. Фоновая раскладка обходит события с {@code fanned_out = FALSE}
+ * и для каждого запоминает решение: события авторов, у которых подписчиков не больше {@code fanOutThreshold},
+ * копируются в {@code timeline_entry} каждого подписчика, а события популярных авторов помечаются
+ * {@code pulled}, и при чтении их страницы берутся из {@code feed} по индексу {@code (user_id, event_id)}.
+ * Еще не разложенные события друзей читаются из хвоста {@code feed}. Все страницы сливаются k-путевым слиянием.
+ */
+@Slf4j
+@Repository
+public class TimelineDbStorage implements TimelineStorage {
+
+    private static final Comparator<Source> BY_HEAD_DESC = Comparator.comparingLong(Source::headEventId).reversed();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FeedDbStorage feedDbStorage;
+    private final FeedEventWriter feedEventWriter;
+    private final FriendGraph friendGraph;
+    private final int fanOutThreshold;
+    private final int fanOutBatchSize;
+    private final int backfillSize;
+    private final int maxPageSize;
+
+    public TimelineDbStorage(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             FeedDbStorage feedDbStorage,
+                             FeedEventWriter feedEventWriter,
+                             FriendGraph friendGraph,
+                             @Value("${filmorate.timeline.fanout-threshold:1000}") int fanOutThreshold,
+                             @Value("${filmorate.timeline.fanout-batch-size:1000}") int fanOutBatchSize,
+                             @Value("${filmorate.timeline.backfill-size:100}") int backfillSize,
+                             @Value("${filmorate.timeline.max-page-size:100}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.feedDbStorage = feedDbStorage;
+        this.feedEventWriter = feedEventWriter;
+        this.friendGraph = friendGraph;
+        this.fanOutThreshold = fanOutThreshold;
+        this.fanOutBatchSize = fanOutBatchSize;
+        this.backfillSize = backfillSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${filmorate.timeline.fanout-interval:PT1S}")
+    public synchronized void fanOutPending() {
+        feedEventWriter.flush();
+
+        int processed;
+        do {
+            processed = Objects.requireNonNull(transactionTemplate.execute(status -> fanOutBatch()));
+        } while (processed == fanOutBatchSize);
+    }
+
+    /**
+     * Копирует в ленту последние разложенные события автора. События, помеченные {@code pulled},
+     * читаются из {@code feed}, а неразложенные попадут в ленту при раскладке.
+     */
+    @Override
+    public void follow(Long userId, Long authorId) {
+        String backfillSql = "MERGE INTO timeline_entry (user_id, event_id) KEY (user_id, event_id) " +
+                "SELECT ?, event_id FROM feed WHERE user_id = ? AND fanned_out AND NOT pulled " +
+                "ORDER BY event_id DESC LIMIT ?";
+        jdbcTemplate.update(backfillSql, userId, authorId, backfillSize);
+    }
+
+    @Override
+    public void unfollow(Long userId, Long authorId) {
+        String deleteSql = "DELETE FROM timeline_entry WHERE user_id = ? " +
+                "AND event_id IN (SELECT event_id FROM feed WHERE user_id = ?)";
+        jdbcTemplate.update(deleteSql, userId, authorId);
+    }
+
+    /**
+     * Неразложенный хвост читается первым: если раскладка успеет обработать событие между запросами,
+     * оно попадет в обе страницы, а не пропадет, и повтор отбросится при слиянии.
+     */
+    @Override
+    public List<Feed> findPage(Long userId, Long beforeEventId, int limit) {
+        feedEventWriter.flush();
+        long before = beforeEventId == null ? Long.MAX_VALUE : beforeEventId;
+        int pageSize = Math.min(limit, maxPageSize);
+        long[] friendIds = friendGraph.getFriends(userId);
+
+        List<List<Feed>> pages = new ArrayList<>();
+        pages.add(findPendingPage(friendIds, before, pageSize));
+
+        String findEntriesSql = "SELECT e.* FROM timeline_entry t JOIN feed e ON e.event_id = t.event_id " +
+                "WHERE t.user_id = ? AND t.event_id < ? ORDER BY t.event_id DESC LIMIT ?";
+        pages.add(jdbcTemplate.query(findEntriesSql, feedDbStorage::mapToFeed, userId, before, pageSize));
+
+        Set<Long> pulledAuthors = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT user_id FROM timeline_pulled_author", Long.class));
+        String findPulledSql = "SELECT * FROM feed WHERE user_id = ? AND pulled AND event_id < ? " +
+                "ORDER BY event_id DESC LIMIT ?";
+        for (long friendId : friendIds) {
+            if (pulledAuthors.contains(friendId)) {
+                pages.add(jdbcTemplate.query(findPulledSql, feedDbStorage::mapToFeed, friendId, before, pageSize));
+            }
+        }
+
+        return merge(pages, pageSize);
+    }
+
+    /**
+     * Неразложенные события друзей. Очередь обычно короче одной пачки раскладки, поэтому просматривается
+     * не больше {@code fanOutBatchSize} последних событий.
+     */
+    private List<Feed> findPendingPage(long[] friendIds, long before, int pageSize) {
+        String findPendingSql = "SELECT * FROM feed WHERE fanned_out = FALSE AND event_id < ? " +
+                "ORDER BY event_id DESC LIMIT ?";
+        return jdbcTemplate.query(findPendingSql, resultSet -> {
+            List<Feed> page = new ArrayList<>();
+            while (page.size() < pageSize && resultSet.next()) {
+                if (SortedLongArrays.contains(friendIds, resultSet.getLong("user_id"))) {
+                    page.add(feedDbStorage.mapToFeed(resultSet, page.size()));
+                }
+            }
+            return page;
+        }, before, fanOutBatchSize);
+    }
+
+    private int fanOutBatch() {
+        String findEventsSql = "SELECT event_id, user_id FROM feed WHERE fanned_out = FALSE " +
+                "ORDER BY event_id LIMIT ?";
+        List<long[]> events = jdbcTemplate.query(findEventsSql,
+                (resultSet, rowNum) -> new long[]{resultSet.getLong("event_id"), resultSet.getLong("user_id")},
+                fanOutBatchSize);
+        if (events.isEmpty()) return 0;
+
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> states = new ArrayList<>(events.size());
+        Set<Long> pulledAuthors = new HashSet<>();
+        for (long[] event : events) {
+            long[] followers = friendGraph.getFollowers(event[1]);
+            boolean pulled = followers.length > fanOutThreshold;
+            if (pulled) {
+                pulledAuthors.add(event[1]);
+            } else {
+                for (long followerId : followers) {
+                    entries.add(new Object[]{followerId, event[0]});
+                }
+            }
+            states.add(new Object[]{pulled, event[0]});
+        }
+
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate("MERGE INTO timeline_entry (user_id, event_id) KEY (user_id, event_id) " +
+                    "VALUES (?, ?)", entries);
+        }
+        if (!pulledAuthors.isEmpty()) {
+            jdbcTemplate.batchUpdate("MERGE INTO timeline_pulled_author (user_id) KEY (user_id) VALUES (?)",
+                    pulledAuthors.stream().map(authorId -> new Object[]{authorId}).toList());
+        }
+        jdbcTemplate.batchUpdate("UPDATE feed SET fanned_out = TRUE, pulled = ? WHERE event_id = ?", states);
+
+        log.debug("Разложено событий ленты: {}, записей в лентах друзей: {}", events.size(), entries.size());
+        return events.size();
+    }
+
+    /**
+     * Сливает страницы, каждая из которых упорядочена по убыванию ID события. Событие, разложенное во время
+     * чтения, может оказаться и в неразложенном хвосте, и в готовой ленте, поэтому повторы пропускаются.
+     */
+    private static List<Feed> merge(List<List<Feed>> pages, int limit) {
+        PriorityQueue<Source> heads = new PriorityQueue<>(BY_HEAD_DESC);
+        for (List<Feed> page : pages) {
+            if (!page.isEmpty()) {
+                heads.add(new Source(page, 0));
+            }
+        }
+
+        List<Feed> result = new ArrayList<>(limit);
+        long lastEventId = Long.MAX_VALUE;
+        while (!heads.isEmpty() && result.size() < limit) {
+            Source source = heads.poll();
+            Feed event = source.head();
+            if (event.getEventId() != lastEventId) {
+                result.add(event);
+                lastEventId = event.getEventId();
+            }
+            if (source.index() + 1 < source.page().size()) {
+                heads.add(new Source(source.page(), source.index() + 1));
+            }
+        }
+        return result;
+    }
+
+    private record Source(List<Feed> page, int index) {
+
+        Feed head() {
+            return page.get(index);
+        }
+
+        long headEventId() {
+            return head().getEventId();
+        }
+    }
+}
@@ -1,41 +1,61 @@
 package ru.yandex.practicum.filmorate.dao;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-@Primary
 @Repository
 @RequiredArgsConstructor
 @Qualifier("userDbStorage")
 public class UserDbStorage implements UserStorage {
 
+    private static final String INSERT_USER_SQL = "INSERT INTO app_user (email, login, name, birthday) " +
+            "VALUES (?, ?, ?, ?)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final BatchKeyLoader batchKeyLoader;
+    private final FriendGraph friendGraph;
+
+    @PostConstruct
+    public void rebuildFriendGraph() {
+        List<long[]> edges = new ArrayList<>();
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friendship", resultSet -> {
+            edges.add(new long[]{resultSet.getLong("user_id"), resultSet.getLong("friend_id")});
+        });
+        friendGraph.rebuild(edges);
+    }
 
     @Override
     public User addUser(User user) {
-        String insertUserSql = "INSERT INTO app_user (email, login, name, birthday) VALUES (?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
-            PreparedStatement preparedStatement = connection.prepareStatement(insertUserSql, new String[]{"user_id"});
-            preparedStatement.setString(1, user.getEmail());
-            preparedStatement.setString(2, user.getLogin());
-            preparedStatement.setString(3, user.getName());
-            preparedStatement.setDate(4, java.sql.Date.valueOf(user.getBirthday()));
+            PreparedStatement preparedStatement = connection.prepareStatement(INSERT_USER_SQL, new String[]{"user_id"});
+            setUserParameters(preparedStatement, user);
             return preparedStatement;
         }, keyHolder);
 
@@ -44,6 +64,33 @@ public class UserDbStorage implements UserStorage {
         return user;
     }
 
+    @Override
+    @Transactional
+    public List<User> addUsers(List<User> users) {
+        if (users.isEmpty()) return users;
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_USER_SQL, new String[]{"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement preparedStatement, int i) throws SQLException {
+                        setUserParameters(preparedStatement, users.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+
+        return users;
+    }
+
     @Override
     public User updateUser(User user) {
         String updateUserSql = "UPDATE app_user SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
@@ -66,6 +113,12 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(findAllUsersSql, this::mapToUser);
     }
 
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        String findUsersPageSql = "SELECT * FROM app_user WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(findUsersPageSql, this::mapToUser, afterId == null ? 0 : afterId, limit);
+    }
+
     @Override
     public User findById(Long id) {
         String findUserByIdSql = "SELECT * FROM app_user WHERE user_id = ?";
@@ -82,37 +135,65 @@ public class UserDbStorage implements UserStorage {
     public void addFriend(Long userId, Long friendId) {
         String insertFriendSql = "INSERT INTO friendship (user_id, friend_id) VALUES (?, ?)";
         jdbcTemplate.update(insertFriendSql, userId, friendId);
+        friendGraph.addFriend(userId, friendId);
+    }
+
+    @Override
+    public boolean[] addFriends(List<Friendship> friendships) {
+        String insertFriendSql = "INSERT INTO friendship (user_id, friend_id) SELECT ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM friendship WHERE user_id = ? AND friend_id = ?)";
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(insertFriendSql, friendships.stream()
+                .map(friendship -> new Object[]{friendship.getUserId(), friendship.getFriendId(),
+                        friendship.getUserId(), friendship.getFriendId()})
+                .toList());
+
+        boolean[] inserted = new boolean[updateCounts.length];
+        List<Friendship> added = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            inserted[i] = updateCounts[i] != 0;
+            if (inserted[i]) {
+                added.add(friendships.get(i));
+            }
+        }
+        AfterCommit.run(() -> added.forEach(friendship ->
+                friendGraph.addFriend(friendship.getUserId(), friendship.getFriendId())));
+        return inserted;
     }
 
     @Override
     public void removeFriend(Long userId, Long friendId) {
         String removeFriendSql = "DELETE FROM friendship WHERE user_id = ? AND friend_id = ?";
         jdbcTemplate.update(removeFriendSql, userId, friendId);
+        friendGraph.removeFriend(userId, friendId);
     }
 
     @Override
     public List<User> getFriends(Long userId) {
-        String listOfFriendsSql = "SELECT u.* FROM app_user u " +
-                "JOIN friendship f ON u.user_id = f.friend_id " +
-                "WHERE f.user_id = ?";
-
-        return jdbcTemplate.query(listOfFriendsSql, this::mapToUser, userId);
+        return findByIds(friendGraph.getFriends(userId));
     }
 
     @Override
     public List<User> getCommonFriends(Long userId, Long otherUserId) {
-        String listOfCommonFriendsSql = "SELECT u.* FROM app_user u " +
-                "JOIN friendship f1 ON u.user_id = f1.friend_id " +
-                "JOIN friendship f2 ON f1.friend_id = f2.friend_id " +
-                "WHERE f1.user_id = ? AND f2.user_id = ?";
-
-        return jdbcTemplate.query(listOfCommonFriendsSql, this::mapToUser, userId, otherUserId);
+        return findByIds(friendGraph.getCommonFriends(userId, otherUserId));
     }
 
     @Override
     public boolean existsById(Long id) {
-        String sql = "SELECT COUNT(*) FROM app_user WHERE user_id = ?";
-        return jdbcTemplate.queryForObject(sql, Integer.class, id) > 0;
+        String sql = "SELECT EXISTS (SELECT 1 FROM app_user WHERE user_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, id));
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return new HashSet<>(batchKeyLoader.query("SELECT user_id FROM app_user WHERE user_id IN (%s)", ids,
+                (resultSet, rowNum) -> resultSet.getLong("user_id")));
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return new HashSet<>(batchKeyLoader.query("SELECT email FROM app_user WHERE email IN (%s)", emails,
+                (resultSet, rowNum) -> resultSet.getString("email")));
     }
 
     @Override
@@ -125,6 +206,28 @@ public class UserDbStorage implements UserStorage {
 
         String deleteUserByIdSql = "DELETE FROM app_user WHERE user_id = ?";
         jdbcTemplate.update(deleteUserByIdSql, userId);
+
+        friendGraph.removeUser(userId);
+    }
+
+    private List<User> findByIds(long[] ids) {
+        if (ids.length == 0) return new ArrayList<>();
+
+        Map<Long, User> usersById = batchKeyLoader.query("SELECT * FROM app_user WHERE user_id IN (%s)",
+                        Arrays.stream(ids).boxed().toList(), this::mapToUser).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+
+        return Arrays.stream(ids)
+                .mapToObj(usersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private void setUserParameters(PreparedStatement preparedStatement, User user) throws SQLException {
+        preparedStatement.setString(1, user.getEmail());
+        preparedStatement.setString(2, user.getLogin());
+        preparedStatement.setString(3, user.getName());
+        preparedStatement.setDate(4, java.sql.Date.valueOf(user.getBirthday()));
     }
 
     private User mapToUser(ResultSet resultSet, int rowNum) throws SQLException {
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+
+/**
+ * Запуск генератора из командной строки:
+ * {@code java -jar filmorate.jar --spring.profiles.active=generate --filmorate.generator.scale=1m}.
+ * Если {@code filmorate.generator.exit} включен, после заполнения базы приложение завершается,
+ * иначе перестраиваются индексы в памяти и приложение продолжает работу на новых данных.
+ */
+@Slf4j
+@Component
+@Profile("generate")
+public class DataGeneratorRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator generator;
+    private final FilmDbStorage filmDbStorage;
+    private final UserDbStorage userDbStorage;
+    private final ConfigurableApplicationContext context;
+    private final String scale;
+    private final boolean exit;
+
+    public DataGeneratorRunner(SyntheticDataGenerator generator,
+                               FilmDbStorage filmDbStorage,
+                               UserDbStorage userDbStorage,
+                               ConfigurableApplicationContext context,
+                               @Value("${filmorate.generator.scale:10k}") String scale,
+                               @Value("${filmorate.generator.exit:true}") boolean exit) {
+        this.generator = generator;
+        this.filmDbStorage = filmDbStorage;
+        this.userDbStorage = userDbStorage;
+        this.context = context;
+        this.scale = scale;
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Генерация данных объема {}", scale);
+        generator.generate(DataVolume.of(scale));
+
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+        filmDbStorage.rebuildIndexes();
+        userDbStorage.rebuildFriendGraph();
+    }
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import java.util.Locale;
+
+/**
+ * Объем синтетических данных. Предустановленные объемы названы по порядку числа лайков.
+ */
+public record DataVolume(int users, int films, int likes, int friendsPerUser, int reviews, int reviewLikes) {
+
+    public static DataVolume of(String label) {
+        return switch (label.toLowerCase(Locale.ROOT)) {
+            case "10k" -> new DataVolume(1_000, 500, 10_000, 5, 1_000, 2_000);
+            case "1m" -> new DataVolume(100_000, 10_000, 1_000_000, 5, 100_000, 200_000);
+            case "10m" -> new DataVolume(1_000_000, 50_000, 10_000_000, 5, 1_000_000, 2_000_000);
+            default -> throw new IllegalArgumentException("Неизвестный объем данных: " + label);
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ориентированный граф по модели Барабаши — Альберт. Каждая новая вершина проводит ребра к {@code edgesPerNode}
+ * уже существующим, выбранным пропорционально их степени, поэтому степени вершин подчиняются степенному закону.
+ */
+public final class ScaleFreeGraph {
+
+    private ScaleFreeGraph() {
+    }
+
+    /**
+     * @return ребра {@code from << 32 | to} между вершинами из {@code [0, nodes)}, без петель и повторов
+     */
+    public static long[] generate(int nodes, int edgesPerNode, Random random) {
+        int maxEdges = (int) Math.min((long) Math.max(nodes - 1, 0) * edgesPerNode, Integer.MAX_VALUE / 2);
+        long[] edges = new long[maxEdges];
+        int[] endpoints = new int[maxEdges * 2];
+        int edgeCount = 0;
+        int endpointCount = 0;
+        int[] targets = new int[edgesPerNode];
+
+        for (int node = 1; node < nodes && edgeCount < maxEdges; node++) {
+            int degree = Math.min(Math.min(edgesPerNode, node), maxEdges - edgeCount);
+            for (int i = 0; i < degree; i++) {
+                int target;
+                do {
+                    target = endpointCount == 0 || node <= edgesPerNode
+                            ? random.nextInt(node)
+                            : endpoints[random.nextInt(endpointCount)];
+                } while (contains(targets, i, target));
+                targets[i] = target;
+            }
+
+            for (int i = 0; i < degree; i++) {
+                edges[edgeCount++] = (long) node << 32 | targets[i];
+                endpoints[endpointCount++] = node;
+                endpoints[endpointCount++] = targets[i];
+            }
+        }
+        return edgeCount == edges.length ? edges : Arrays.copyOf(edges, edgeCount);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+}
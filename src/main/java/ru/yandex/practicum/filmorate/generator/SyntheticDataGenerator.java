@@ -0,0 +1,248 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Заполняет базу синтетическими данными с распределениями, похожими на реальные: популярность фильмов
+ * и активность пользователей подчиняются закону Ципфа, граф дружбы строится по модели Барабаши — Альберт.
+ * Строки пишутся во временные CSV-файлы и загружаются через {@code INSERT ... SELECT FROM CSVREAD} порциями
+ * по {@code CHUNK_ROWS} строк: одна вставка на миллионы строк в H2 раздувает журнал отмены и файл базы.
+ * Диапазоны новых ID резервируются заранее после существующих, поэтому генератор можно запускать
+ * и на непустой базе.
+ */
+@Slf4j
+@Component
+public class SyntheticDataGenerator {
+
+    public static final List<String> TITLE_WORDS = List.of("star", "night", "river", "city", "ghost", "summer",
+            "storm", "dream", "shadow", "king", "road", "love", "war", "island", "secret", "winter");
+
+    private static final int CHUNK_ROWS = 100_000;
+    private static final int GENRES = 6;
+    private static final int MPA_RATINGS = 5;
+    private static final double USEFUL_SHARE = 0.7;
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1950, 1, 1);
+    private static final long HISTORY_MILLIS = Duration.ofDays(365).toMillis();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long seed;
+    private final double filmExponent;
+    private final double userExponent;
+    private final int fanOutThreshold;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  @Value("${filmorate.generator.seed:42}") long seed,
+                                  @Value("${filmorate.generator.film-exponent:1.0}") double filmExponent,
+                                  @Value("${filmorate.generator.user-exponent:0.8}") double userExponent,
+                                  @Value("${filmorate.timeline.fanout-threshold:1000}") int fanOutThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.seed = seed;
+        this.filmExponent = filmExponent;
+        this.userExponent = userExponent;
+        this.fanOutThreshold = fanOutThreshold;
+    }
+
+    public void generate(DataVolume volume) {
+        long startedAt = System.currentTimeMillis();
+        Random random = new Random(seed);
+        long userBase = reserveIds("app_user", "user_id", volume.users());
+        long filmBase = reserveIds("film", "film_id", volume.films());
+        long reviewBase = reserveIds("review", "review_id", volume.reviews());
+
+        ZipfSampler filmPopularity = new ZipfSampler(volume.films(), filmExponent);
+        ZipfSampler userActivity = new ZipfSampler(volume.users(), userExponent);
+        ZipfSampler reviewPopularity = new ZipfSampler(volume.reviews(), filmExponent);
+
+        long[] likes = uniquePairs(volume.likes(), filmPopularity, userActivity, random);
+        long[] likeCounts = new long[volume.films()];
+        for (long like : likes) {
+            likeCounts[high(like)]++;
+        }
+        long[] friendships = ScaleFreeGraph.generate(volume.users(), volume.friendsPerUser(), random);
+
+        int[] reviewFilms = new int[volume.reviews()];
+        int[] reviewUsers = new int[volume.reviews()];
+        for (int i = 0; i < volume.reviews(); i++) {
+            reviewFilms[i] = filmPopularity.sample(random);
+            reviewUsers[i] = userActivity.sample(random);
+        }
+        long[] reviewLikes = uniquePairs(volume.reviewLikes(), reviewPopularity, userActivity, random);
+        boolean[] reviewLikeUseful = new boolean[reviewLikes.length];
+        int[] useful = new int[volume.reviews()];
+        for (int i = 0; i < reviewLikes.length; i++) {
+            reviewLikeUseful[i] = random.nextDouble() < USEFUL_SHARE;
+            useful[high(reviewLikes[i])] += reviewLikeUseful[i] ? 1 : -1;
+        }
+
+        Path directory = createDirectory();
+        try {
+            load(directory, "app_user", "user_id, email, login, name, birthday", volume.users(), i -> {
+                long userId = userBase + i + 1;
+                return userId + ",user" + userId + "@filmorate.test,user" + userId + ",User " + userId + ","
+                        + FIRST_RELEASE.plusDays(random.nextInt(20_000));
+            });
+            load(directory, "film", "film_id, name, description, release_date, duration, mpa_id, like_count",
+                    volume.films(), i -> {
+                        long filmId = filmBase + i + 1;
+                        return filmId + "," + title(random, filmId) + ",Description " + filmId + ","
+                                + FIRST_RELEASE.plusDays(random.nextInt(27_000)) + "," + (60 + random.nextInt(120))
+                                + "," + (1 + random.nextInt(MPA_RATINGS)) + "," + likeCounts[i];
+                    });
+            load(directory, "film_genre", "film_id, genre_id", volume.films(),
+                    i -> (filmBase + i + 1) + "," + (1 + random.nextInt(GENRES)));
+            load(directory, "film_like", "film_id, user_id", likes.length,
+                    i -> (filmBase + high(likes[i]) + 1) + "," + (userBase + low(likes[i]) + 1));
+            load(directory, "friendship", "user_id, friend_id", friendships.length,
+                    i -> (userBase + high(friendships[i]) + 1) + "," + (userBase + low(friendships[i]) + 1));
+            load(directory, "review", "review_id, film_id, user_id, content, is_positive, useful", volume.reviews(),
+                    i -> (reviewBase + i + 1) + "," + (filmBase + reviewFilms[i] + 1) + ","
+                            + (userBase + reviewUsers[i] + 1) + ",Review " + (reviewBase + i + 1) + ","
+                            + random.nextBoolean() + "," + useful[i]);
+            load(directory, "review_like", "review_id, user_id, is_useful", reviewLikes.length,
+                    i -> (reviewBase + high(reviewLikes[i]) + 1) + "," + (userBase + low(reviewLikes[i]) + 1) + ","
+                            + reviewLikeUseful[i]);
+
+            int events = friendships.length + likes.length + volume.reviews();
+            long firstTimestamp = startedAt - HISTORY_MILLIS;
+            long eventBase = reserveIds("feed", "event_id", events);
+            // История не раскладывается по лентам друзей: события загружаются уже разложенными,
+            // а события популярных авторов помечаются для чтения из feed.
+            int[] followers = new int[volume.users()];
+            for (long friendship : friendships) {
+                followers[low(friendship)]++;
+            }
+            load(directory, "feed", "event_id, timestamp, user_id, entity_id, event_type, event_operation, " +
+                            "fanned_out, pulled", events,
+                    i -> {
+                        String event = (eventBase + i + 1) + "," + (firstTimestamp + HISTORY_MILLIS * i / events) + ",";
+                        int author;
+                        String rest;
+                        if (i < friendships.length) {
+                            author = high(friendships[i]);
+                            rest = (userBase + low(friendships[i]) + 1) + ",FRIEND,ADD";
+                        } else if (i - friendships.length < likes.length) {
+                            int like = i - friendships.length;
+                            author = low(likes[like]);
+                            rest = (filmBase + high(likes[like]) + 1) + ",LIKE,ADD";
+                        } else {
+                            int review = i - friendships.length - likes.length;
+                            author = reviewUsers[review];
+                            rest = (reviewBase + review + 1) + ",REVIEW,ADD";
+                        }
+                        return event + (userBase + author + 1) + "," + rest + ",TRUE,"
+                                + (followers[author] > fanOutThreshold);
+                    });
+            jdbcTemplate.update("MERGE INTO timeline_pulled_author (user_id) KEY (user_id) " +
+                    "SELECT DISTINCT user_id FROM feed WHERE pulled AND event_id > ?", eventBase);
+        } finally {
+            FileSystemUtils.deleteRecursively(directory.toFile());
+        }
+
+
+        log.info("Сгенерировано пользователей: {}, фильмов: {}, лайков: {}, дружб: {}, отзывов: {}, " +
+                        "оценок отзывов: {} за {} мс", volume.users(), volume.films(), likes.length,
+                friendships.length, volume.reviews(), reviewLikes.length, System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Пары {@code left << 32 | right} без повторов, отсортированные по возрастанию. Повторы дозаполняются
+     * новыми выборками, поэтому пар может оказаться немного меньше {@code count} только если распределения
+     * слишком узкие для такого числа различных пар.
+     */
+    private static long[] uniquePairs(int count, ZipfSampler left, ZipfSampler right, Random random) {
+        long[] pairs = new long[0];
+        for (int round = 0; round < 10 && pairs.length < count; round++) {
+            long[] next = Arrays.copyOf(pairs, count);
+            for (int i = pairs.length; i < count; i++) {
+                next[i] = (long) left.sample(random) << 32 | right.sample(random);
+            }
+            Arrays.parallelSort(next);
+            pairs = Arrays.copyOf(next, distinct(next));
+        }
+        return pairs;
+    }
+
+    private static int distinct(long[] sorted) {
+        int length = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[length++] = sorted[i];
+            }
+        }
+        return length;
+    }
+
+    private static int high(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    private static int low(long pair) {
+        return (int) pair;
+    }
+
+    private static String title(Random random, long filmId) {
+        return TITLE_WORDS.get(random.nextInt(TITLE_WORDS.size())) + " "
+                + TITLE_WORDS.get(random.nextInt(TITLE_WORDS.size())) + " " + filmId;
+    }
+
+    private void load(Path directory, String table, String columns, int rows, IntFunction<String> row) {
+        String overriding = table.equals("review") || table.equals("feed") ? " OVERRIDING SYSTEM VALUE" : "";
+        for (int from = 0; from < rows; from += CHUNK_ROWS) {
+            Path file = directory.resolve(table + "-" + from + ".csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(columns.replace(" ", ""));
+                writer.newLine();
+                for (int i = from; i < Math.min(from + CHUNK_ROWS, rows); i++) {
+                    writer.write(row.apply(i));
+                    writer.newLine();
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            String fileName = file.toAbsolutePath().toString().replace("'", "''");
+            jdbcTemplate.update("INSERT INTO " + table + " (" + columns + ")" + overriding +
+                    " SELECT * FROM CSVREAD('" + fileName + "', NULL, 'charset=UTF-8')");
+            FileSystemUtils.deleteRecursively(file.toFile());
+        }
+        log.debug("Загружено строк в {}: {}", table, rows);
+    }
+
+    /**
+     * Сдвигает генератор ID таблицы на {@code count} значений вперед.
+     *
+     * @return ID, после которого начинается зарезервированный диапазон
+     */
+    private long reserveIds(String table, String idColumn, int count) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + table, Long.class);
+        long base = maxId == null ? 0 : maxId;
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " RESTART WITH "
+                + (base + count + 1));
+        return base;
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("filmorate-generator");
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
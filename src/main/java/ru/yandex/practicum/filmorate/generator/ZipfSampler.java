@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Распределение Ципфа на {@code [0, n)}: вероятность номера {@code k} пропорциональна {@code 1 / (k + 1)^s}.
+ * Выбор — двоичный поиск по накопленным весам.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Размер распределения должен быть положительным: " + n);
+        }
+
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+    }
+
+    public int sample(Random random) {
+        double point = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, point);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,243 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Suggestion;
+import ru.yandex.practicum.filmorate.model.enums.SuggestionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Префиксный индекс для автодополнения по названиям фильмов и именам режиссеров. Ключи — нормализованный
+ * текст, начиная с каждого слова, поэтому подсказки по префиксу — это диапазон отсортированной карты.
+ * Фильмы взвешиваются числом лайков, режиссеры — суммой лайков их фильмов, которая пересчитывается в фоне.
+ * Для префиксов до {@link #SHORT_PREFIX_LENGTH} символов в фоне же собираются готовые топ-списки.
+ * Диапазон длинного префикса просматривается целиком; если в нем больше {@link #MAX_SCAN} ключей,
+ * его топ-список запоминается до следующего пересчета.
+ */
+@Component
+@RequiredArgsConstructor
+public class AutocompleteIndex {
+
+    private static final Comparator<Candidate> BY_WEIGHT = Comparator.comparingLong(Candidate::weight)
+            .thenComparing(candidate -> candidate.suggestion().getTitle(), Comparator.reverseOrder())
+            .thenComparing(candidate -> candidate.suggestion().getId(), Comparator.reverseOrder());
+
+    static final int MAX_LIMIT = 100;
+    static final int SHORT_PREFIX_LENGTH = 3;
+    static final int MAX_SCAN = 10_000;
+
+    private final PopularityIndex popularityIndex;
+    private final FilmSearchIndex filmSearchIndex;
+
+    private final NavigableMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, Suggestion> films = new ConcurrentHashMap<>();
+    private final Map<Long, Suggestion> directors = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> directorWeights = Map.of();
+    private volatile Map<String, List<Suggestion>> shortPrefixTops = Map.of();
+    private final Map<String, List<Suggestion>> heavyPrefixTops = new ConcurrentHashMap<>();
+
+    public synchronized void rebuild(Map<Long, String> filmTitles, Map<Long, String> directorNames) {
+        entries.clear();
+        films.clear();
+        directors.clear();
+        filmTitles.forEach(this::putFilm);
+        directorNames.forEach(this::putDirector);
+        refreshWeights();
+    }
+
+    public synchronized void putFilm(long filmId, String title) {
+        put(films, new Suggestion(SuggestionType.FILM, filmId, title));
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        remove(films, filmId);
+    }
+
+    public synchronized void putDirector(long directorId, String name) {
+        put(directors, new Suggestion(SuggestionType.DIRECTOR, directorId, name));
+    }
+
+    public synchronized void removeDirector(long directorId) {
+        remove(directors, directorId);
+    }
+
+    /**
+     * Не больше {@code limit} подсказок, у которых одно из слов начинается с {@code prefix},
+     * по убыванию веса. Короткий префикс и префикс с большим диапазоном отвечаются из топ-списка
+     * последнего пересчета.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix).strip();
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        if (limit > MAX_LIMIT) {
+            return scan(normalized, limit);
+        }
+
+        List<Suggestion> top = normalized.length() <= SHORT_PREFIX_LENGTH
+                ? shortPrefixTops.getOrDefault(normalized, List.of())
+                : heavyPrefixTops.get(normalized);
+        if (top == null) {
+            top = scan(normalized, MAX_LIMIT);
+            if (hasMoreKeys(normalized, MAX_SCAN)) {
+                heavyPrefixTops.put(normalized, top);
+            }
+        }
+        return top.stream()
+                .filter(this::isCurrent)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Пересчитывает веса режиссеров и топ-списки коротких префиксов, забывает топ-списки длинных.
+     */
+    @Scheduled(fixedDelayString = "${filmorate.autocomplete.refresh-interval:PT5S}")
+    public void refreshWeights() {
+        Map<Long, Long> weights = new HashMap<>();
+        for (long directorId : directors.keySet()) {
+            long likes = 0;
+            for (long filmId : filmSearchIndex.getDirectorFilms(directorId)) {
+                likes += popularityIndex.getLikes(filmId);
+            }
+            weights.put(directorId, likes);
+        }
+        directorWeights = weights;
+
+        Map<String, PriorityQueue<Candidate>> tops = new HashMap<>();
+        for (Map<Long, Suggestion> suggestions : List.of(films, directors)) {
+            for (Suggestion suggestion : suggestions.values()) {
+                Candidate candidate = new Candidate(suggestion, weight(suggestion));
+                Set<String> prefixes = new HashSet<>();
+                for (String tail : wordTails(normalize(suggestion.getTitle()))) {
+                    for (int length = 1; length <= SHORT_PREFIX_LENGTH && length <= tail.length(); length++) {
+                        prefixes.add(tail.substring(0, length));
+                    }
+                }
+                prefixes.forEach(shortPrefix -> offer(
+                        tops.computeIfAbsent(shortPrefix, key -> new PriorityQueue<>(BY_WEIGHT)), candidate, MAX_LIMIT));
+            }
+        }
+
+        Map<String, List<Suggestion>> lists = new HashMap<>();
+        tops.forEach((shortPrefix, top) -> lists.put(shortPrefix, drain(top)));
+        shortPrefixTops = lists;
+        heavyPrefixTops.clear();
+    }
+
+    private List<Suggestion> scan(String prefix, int limit) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(BY_WEIGHT);
+        Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Suggestion suggestion : range(prefix).values()) {
+            if (seen.add(suggestion)) {
+                offer(top, new Candidate(suggestion, weight(suggestion)), limit);
+            }
+        }
+        return drain(top);
+    }
+
+    private boolean hasMoreKeys(String prefix, int count) {
+        Iterator<String> keys = range(prefix).keySet().iterator();
+        for (int i = 0; i <= count; i++) {
+            if (!keys.hasNext()) {
+                return false;
+            }
+            keys.next();
+        }
+        return true;
+    }
+
+    private NavigableMap<String, Suggestion> range(String prefix) {
+        return entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private long weight(Suggestion suggestion) {
+        if (suggestion.getType() == SuggestionType.FILM) {
+            return popularityIndex.getLikes(suggestion.getId());
+        }
+        return directorWeights.getOrDefault(suggestion.getId(), 0L);
+    }
+
+    private boolean isCurrent(Suggestion suggestion) {
+        Map<Long, Suggestion> suggestions = suggestion.getType() == SuggestionType.FILM ? films : directors;
+        return suggestions.get(suggestion.getId()) == suggestion;
+    }
+
+    private static void offer(PriorityQueue<Candidate> top, Candidate candidate, int limit) {
+        top.add(candidate);
+        if (top.size() > limit) {
+            top.poll();
+        }
+    }
+
+    private static List<Suggestion> drain(PriorityQueue<Candidate> top) {
+        List<Suggestion> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            result.add(top.poll().suggestion());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void put(Map<Long, Suggestion> suggestions, Suggestion suggestion) {
+        Suggestion previous = suggestions.put(suggestion.getId(), suggestion);
+        if (previous != null) {
+            keysOf(previous).forEach(entries::remove);
+        }
+        keysOf(suggestion).forEach(key -> entries.put(key, suggestion));
+    }
+
+    private void remove(Map<Long, Suggestion> suggestions, long id) {
+        Suggestion previous = suggestions.remove(id);
+        if (previous != null) {
+            keysOf(previous).forEach(entries::remove);
+        }
+    }
+
+    /**
+     * Для каждого слова — хвост текста с начала слова, дополненный типом и ID, чтобы ключи
+     * разных подсказок с одинаковым текстом не совпадали.
+     */
+    private static List<String> keysOf(Suggestion suggestion) {
+        String suffix = "\u0000" + suggestion.getType().ordinal() + ":" + suggestion.getId();
+        return wordTails(normalize(suggestion.getTitle())).stream()
+                .map(tail -> tail + suffix)
+                .toList();
+    }
+
+    private static List<String> wordTails(String text) {
+        List<String> tails = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(text.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+            if (wordStart) {
+                tails.add(text.substring(i));
+            }
+        }
+        return tails;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private record Candidate(Suggestion suggestion, long weight) {
+    }
+}
@@ -0,0 +1,206 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+/**
+ * Триграммный инвертированный индекс по названиям фильмов и именам режиссеров. Для каждой триграммы
+ * хранится отсортированный массив ID, поиск подстроки пересекает массивы всех триграмм запроса
+ * и проверяет кандидатов по исходному тексту. Результат упорядочен по числу лайков из {@link PopularityIndex}.
+ */
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final PopularityIndex popularityIndex;
+
+    private final Map<Long, String> titles = new ConcurrentHashMap<>();
+    private final Map<String, long[]> titleGrams = new ConcurrentHashMap<>();
+    private final Map<Long, String> directorNames = new ConcurrentHashMap<>();
+    private final Map<String, long[]> directorGrams = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> filmDirectors = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> directorFilms = new ConcurrentHashMap<>();
+
+    /**
+     * @param filmDirectorLinks пары {@code {filmId, directorId}}
+     */
+    public synchronized void rebuild(Map<Long, String> filmTitles, Map<Long, String> directors,
+                                     Iterable<long[]> filmDirectorLinks) {
+        titles.clear();
+        titleGrams.clear();
+        directorNames.clear();
+        directorGrams.clear();
+        filmDirectors.clear();
+        directorFilms.clear();
+
+        directors.forEach(this::putDirector);
+        filmTitles.forEach(this::putTitle);
+        for (long[] link : filmDirectorLinks) {
+            link(link[0], link[1]);
+        }
+    }
+
+    public synchronized void putFilm(long filmId, String title, Set<Long> directorIds) {
+        putTitle(filmId, title);
+
+        long[] previous = filmDirectors.getOrDefault(filmId, SortedLongArrays.EMPTY);
+        for (long directorId : previous) {
+            if (!directorIds.contains(directorId)) {
+                unlink(filmId, directorId);
+            }
+        }
+        for (long directorId : directorIds) {
+            link(filmId, directorId);
+        }
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        for (long directorId : filmDirectors.getOrDefault(filmId, SortedLongArrays.EMPTY)) {
+            unlink(filmId, directorId);
+        }
+        String previous = titles.remove(filmId);
+        if (previous != null) {
+            removePostings(titleGrams, previous, filmId);
+        }
+    }
+
+    public synchronized void putDirector(long directorId, String name) {
+        String normalized = normalize(name);
+        String previous = directorNames.put(directorId, normalized);
+        if (previous != null) {
+            removePostings(directorGrams, previous, directorId);
+        }
+        addPostings(directorGrams, normalized, directorId);
+    }
+
+    public synchronized void removeDirector(long directorId) {
+        for (long filmId : directorFilms.getOrDefault(directorId, SortedLongArrays.EMPTY)) {
+            unlink(filmId, directorId);
+        }
+        String previous = directorNames.remove(directorId);
+        if (previous != null) {
+            removePostings(directorGrams, previous, directorId);
+        }
+    }
+
+    /**
+     * ID фильмов, у которых название или имя режиссера содержит {@code query} без учета регистра,
+     * по убыванию числа лайков.
+     */
+    public List<Long> search(String query, boolean byTitle, boolean byDirector) {
+        Set<Long> filmIds = new HashSet<>();
+        String normalized = normalize(query);
+
+        if (byTitle) {
+            for (long filmId : find(titleGrams, titles, normalized)) {
+                filmIds.add(filmId);
+            }
+        }
+        if (byDirector) {
+            for (long directorId : find(directorGrams, directorNames, normalized)) {
+                for (long filmId : directorFilms.getOrDefault(directorId, SortedLongArrays.EMPTY)) {
+                    filmIds.add(filmId);
+                }
+            }
+        }
+
+        return rank(filmIds);
+    }
+
+    public long[] getDirectorFilms(long directorId) {
+        return directorFilms.getOrDefault(directorId, SortedLongArrays.EMPTY);
+    }
+
+    public List<Long> findAll() {
+        return rank(titles.keySet());
+    }
+
+    private List<Long> rank(Set<Long> filmIds) {
+        return filmIds.stream()
+                .sorted(Comparator.<Long>comparingLong(popularityIndex::getLikes).reversed()
+                        .thenComparingLong(Long::longValue))
+                .toList();
+    }
+
+    private static long[] find(Map<String, long[]> grams, Map<Long, String> texts, String query) {
+        if (query.length() < GRAM) {
+            return texts.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(query))
+                    .mapToLong(Map.Entry::getKey)
+                    .toArray();
+        }
+
+        long[] candidates = null;
+        for (String gram : gramsOf(query)) {
+            long[] ids = grams.get(gram);
+            if (ids == null) {
+                return SortedLongArrays.EMPTY;
+            }
+            candidates = candidates == null ? ids : SortedLongArrays.intersect(candidates, ids);
+            if (candidates.length == 0) {
+                return candidates;
+            }
+        }
+
+        return LongStream.of(candidates)
+                .filter(id -> {
+                    String text = texts.get(id);
+                    return text != null && text.contains(query);
+                })
+                .toArray();
+    }
+
+    private void putTitle(long filmId, String title) {
+        String normalized = normalize(title);
+        String previous = titles.put(filmId, normalized);
+        if (previous != null) {
+            removePostings(titleGrams, previous, filmId);
+        }
+        addPostings(titleGrams, normalized, filmId);
+    }
+
+    private void link(long filmId, long directorId) {
+        filmDirectors.compute(filmId, (k, ids) -> SortedLongArrays.insert(ids, directorId));
+        directorFilms.compute(directorId, (k, ids) -> SortedLongArrays.insert(ids, filmId));
+    }
+
+    private void unlink(long filmId, long directorId) {
+        filmDirectors.computeIfPresent(filmId, (k, ids) -> SortedLongArrays.remove(ids, directorId));
+        directorFilms.computeIfPresent(directorId, (k, ids) -> SortedLongArrays.remove(ids, filmId));
+    }
+
+    private static void addPostings(Map<String, long[]> grams, String text, long id) {
+        for (String gram : gramsOf(text)) {
+            grams.compute(gram, (k, ids) -> SortedLongArrays.insert(ids, id));
+        }
+    }
+
+    private static void removePostings(Map<String, long[]> grams, String text, long id) {
+        for (String gram : gramsOf(text)) {
+            grams.computeIfPresent(gram, (k, ids) -> SortedLongArrays.remove(ids, id));
+        }
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Граф дружбы в памяти. Для каждого пользователя хранятся отсортированные массивы ID друзей и тех,
+ * кто добавил его в друзья. Массивы не изменяются после публикации: запись подменяет массив целиком,
+ * поэтому чтение идет без блокировок, а общие друзья считаются слиянием двух отсортированных массивов.
+ */
+@Component
+public class FriendGraph {
+
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> followers = new ConcurrentHashMap<>();
+
+    /**
+     * @param edges пары {@code {userId, friendId}}
+     */
+    public synchronized void rebuild(Iterable<long[]> edges) {
+        Map<Long, LongList> outgoing = new HashMap<>();
+        Map<Long, LongList> incoming = new HashMap<>();
+        for (long[] edge : edges) {
+            outgoing.computeIfAbsent(edge[0], k -> new LongList()).add(edge[1]);
+            incoming.computeIfAbsent(edge[1], k -> new LongList()).add(edge[0]);
+        }
+
+        friends.clear();
+        followers.clear();
+        outgoing.forEach((userId, list) -> friends.put(userId, list.toSortedArray()));
+        incoming.forEach((userId, list) -> followers.put(userId, list.toSortedArray()));
+    }
+
+    public synchronized void addFriend(long userId, long friendId) {
+        friends.compute(userId, (k, ids) -> SortedLongArrays.insert(ids, friendId));
+        followers.compute(friendId, (k, ids) -> SortedLongArrays.insert(ids, userId));
+    }
+
+    public synchronized void removeFriend(long userId, long friendId) {
+        friends.computeIfPresent(userId, (k, ids) -> SortedLongArrays.remove(ids, friendId));
+        followers.computeIfPresent(friendId, (k, ids) -> SortedLongArrays.remove(ids, userId));
+    }
+
+    public synchronized void removeUser(long userId) {
+        for (long friendId : getFriends(userId)) {
+            followers.computeIfPresent(friendId, (k, ids) -> SortedLongArrays.remove(ids, userId));
+        }
+        for (long followerId : getFollowers(userId)) {
+            friends.computeIfPresent(followerId, (k, ids) -> SortedLongArrays.remove(ids, userId));
+        }
+        friends.remove(userId);
+        followers.remove(userId);
+    }
+
+    public long[] getFriends(long userId) {
+        return friends.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    /**
+     * Пользователи, добавившие {@code userId} в друзья.
+     */
+    public long[] getFollowers(long userId) {
+        return followers.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    public long[] getCommonFriends(long userId, long otherUserId) {
+        return SortedLongArrays.intersect(getFriends(userId), getFriends(otherUserId));
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Рейтинг популярности фильмов в памяти. Для каждой корзины (жанр, год) хранится упорядоченное
+ * по числу лайков множество фильмов, поэтому первые K элементов корзины и есть топ-K, а изменение
+ * лайка перестраивает только позиции одного фильма в его корзинах.
+ */
+@Component
+public class PopularityIndex {
+
+    private static final Comparator<Entry> BY_LIKES_DESC = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final Map<Long, FilmState> films = new ConcurrentHashMap<>();
+    private final Map<Bucket, NavigableSet<Entry>> buckets = new ConcurrentHashMap<>();
+
+    public synchronized void rebuild(Map<Long, Integer> releaseYears, Map<Long, Set<Integer>> genreIds,
+                                     Map<Long, Long> likeCounts) {
+        films.clear();
+        buckets.clear();
+        releaseYears.forEach((filmId, year) -> {
+            FilmState state = new FilmState(likeCounts.getOrDefault(filmId, 0L), year,
+                    Set.copyOf(genreIds.getOrDefault(filmId, Set.of())));
+            films.put(filmId, state);
+            addToBuckets(filmId, state);
+        });
+    }
+
+    public synchronized void putFilm(long filmId, int releaseYear, Set<Integer> genreIds) {
+        FilmState previous = films.get(filmId);
+        FilmState state = new FilmState(previous == null ? 0 : previous.likes(), releaseYear, Set.copyOf(genreIds));
+        films.put(filmId, state);
+        addToBuckets(filmId, state);
+        if (previous != null) {
+            removeFromBuckets(filmId, previous, state);
+        }
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        FilmState previous = films.remove(filmId);
+        if (previous != null) {
+            removeFromBuckets(filmId, previous, null);
+        }
+    }
+
+    public synchronized void changeLikes(long filmId, long delta) {
+        FilmState previous = films.get(filmId);
+        if (previous == null) {
+            return;
+        }
+
+        FilmState state = new FilmState(Math.max(0, previous.likes() + delta), previous.year(), previous.genreIds());
+        films.put(filmId, state);
+        addToBuckets(filmId, state);
+        removeFromBuckets(filmId, previous, state);
+    }
+
+    public long getLikes(long filmId) {
+        FilmState state = films.get(filmId);
+        return state == null ? 0 : state.likes();
+    }
+
+    public List<Long> findTop(int count, Integer genreId, Integer year) {
+        NavigableSet<Entry> bucket = buckets.get(new Bucket(genreId, year));
+        if (bucket == null) {
+            return List.of();
+        }
+
+        Set<Long> filmIds = new LinkedHashSet<>();
+        Iterator<Entry> iterator = bucket.iterator();
+        while (iterator.hasNext() && filmIds.size() < count) {
+            filmIds.add(iterator.next().filmId());
+        }
+
+        return new ArrayList<>(filmIds);
+    }
+
+    private void addToBuckets(long filmId, FilmState state) {
+        Entry entry = new Entry(filmId, state.likes());
+        for (Bucket bucket : bucketsOf(state)) {
+            buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListSet<>(BY_LIKES_DESC)).add(entry);
+        }
+    }
+
+    private void removeFromBuckets(long filmId, FilmState previous, FilmState current) {
+        Entry entry = new Entry(filmId, previous.likes());
+        Set<Bucket> currentBuckets = current == null ? Set.of() : bucketsOf(current);
+        for (Bucket bucket : bucketsOf(previous)) {
+            if (current != null && current.likes() == previous.likes() && currentBuckets.contains(bucket)) {
+                continue;
+            }
+            NavigableSet<Entry> entries = buckets.get(bucket);
+            if (entries != null) {
+                entries.remove(entry);
+            }
+        }
+    }
+
+    private Set<Bucket> bucketsOf(FilmState state) {
+        Set<Bucket> result = new HashSet<>();
+        result.add(new Bucket(null, null));
+        result.add(new Bucket(null, state.year()));
+        for (Integer genreId : state.genreIds()) {
+            result.add(new Bucket(genreId, null));
+            result.add(new Bucket(genreId, state.year()));
+        }
+        return result;
+    }
+
+    private record Bucket(Integer genreId, Integer year) {
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+
+    private record FilmState(long likes, int year, Set<Integer> genreIds) {
+    }
+}
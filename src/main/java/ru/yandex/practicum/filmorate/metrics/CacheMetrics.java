@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.ReferenceCache;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.cache.ReviewRankingCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+
+/**
+ * Публикует статистику кэшей приложения. Справочники пишут попадания и промахи в
+ * {@code filmorate.reference.cache} с тегами {@code cache} и {@code result}, а кэши Caffeine
+ * подключаются стандартными метриками {@code cache.*} с тегом {@code cache}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+
+    private final ReferenceDataCache referenceDataCache;
+    private final EntityCache entityCache;
+    private final ReviewRankingCache reviewRankingCache;
+    private final RecommendationCache recommendationCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        referenceDataCache.getCaches().forEach((name, cache) -> bindReferenceCache(registry, name, cache));
+
+        CaffeineCacheMetrics.monitor(registry, entityCache.getFilms(), "films");
+        CaffeineCacheMetrics.monitor(registry, entityCache.getUsers(), "users");
+        CaffeineCacheMetrics.monitor(registry, reviewRankingCache.getFilmTops(), "review.tops");
+        CaffeineCacheMetrics.monitor(registry, reviewRankingCache.getReviewFilms(), "review.films");
+        CaffeineCacheMetrics.monitor(registry, recommendationCache.getRecommendations(), "recommendations");
+    }
+
+    private static void bindReferenceCache(MeterRegistry registry, String name, ReferenceCache<?, ?> cache) {
+        FunctionCounter.builder("filmorate.reference.cache", cache, ReferenceCache::getHits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.reference.cache", cache, ReferenceCache::getMisses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("filmorate.reference.cache.size", cache, ReferenceCache::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
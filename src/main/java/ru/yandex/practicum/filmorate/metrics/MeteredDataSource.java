@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Источник соединений, который замеряет каждый SQL-запрос: время выполнения ({@code filmorate.sql})
+ * и число прочитанных строк ({@code filmorate.sql.rows}) с тегом {@code statement} — текстом запроса,
+ * в котором списки параметров {@code IN (?, ?, ...)} свернуты, чтобы пакеты разного размера не плодили метрики.
+ * Закрытие передается исходному источнику, чтобы пул соединений закрывался вместе с контекстом.
+ */
+public class MeteredDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_STATEMENT_LENGTH = 200;
+
+    private final MeterRegistry registry;
+
+    public MeteredDataSource(DataSource targetDataSource, MeterRegistry registry) {
+        super(targetDataSource);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return meteredConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return meteredConnection(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    static String normalize(String sql) {
+        String statement = WHITESPACE.matcher(PARAMETER_LIST.matcher(sql).replaceAll("(?)")).replaceAll(" ").strip();
+        return statement.length() > MAX_STATEMENT_LENGTH ? statement.substring(0, MAX_STATEMENT_LENGTH) : statement;
+    }
+
+    private Connection meteredConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+                        return meteredStatement(statement, (String) args[0]);
+                    }
+                    if (result instanceof Statement statement) {
+                        return meteredStatement(statement, null);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * @param preparedSql текст подготовленного запроса; для обычного {@link Statement} берется из вызова execute
+     */
+    private Statement meteredStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+
+                    String sql = preparedSql != null ? preparedSql
+                            : args != null && args.length > 0 && args[0] instanceof String text ? text : "batch";
+                    String tag = normalize(sql);
+                    RequestQueryCounter.increment();
+
+                    Timer.Sample sample = Timer.start(registry);
+                    String exception = "none";
+                    try {
+                        Object result = invoke(statement, method, args);
+                        return result instanceof ResultSet resultSet ? meteredResultSet(resultSet, tag) : result;
+                    } catch (Throwable throwable) {
+                        exception = throwable.getClass().getSimpleName();
+                        throw throwable;
+                    } finally {
+                        sample.stop(Timer.builder("filmorate.sql")
+                                .tag("statement", tag)
+                                .tag("operation", operation(tag))
+                                .tag("exception", exception)
+                                .register(registry));
+                    }
+                });
+    }
+
+    private ResultSet meteredResultSet(ResultSet resultSet, String tag) {
+        long[] rows = new long[1];
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(resultSet, method, args);
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                        rows[0]++;
+                    } else if (method.getName().equals("close")) {
+                        DistributionSummary.builder("filmorate.sql.rows")
+                                .tag("statement", tag)
+                                .register(registry)
+                                .record(rows[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static String operation(String statement) {
+        int end = statement.indexOf(' ');
+        return (end < 0 ? statement : statement.substring(0, end)).toUpperCase(Locale.ROOT);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Подключает замеры SQL-запросов и запросов на HTTP-запрос. Источник соединений оборачивается
+ * в {@link MeteredDataSource}; метрики пула Hikari публикует Actuator, так как обертка поддерживает
+ * {@code unwrap}.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Предел различных текстов запросов в метриках: запросы, собранные динамически, не должны
+     * неограниченно плодить временные ряды.
+     */
+    private static final int MAX_STATEMENTS = 500;
+
+    @Bean
+    static BeanPostProcessor meteredDataSourcePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof MeteredDataSource)
+                        ? new MeteredDataSource(dataSource, registry.getObject()) : bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterFilter statementCardinalityFilter() {
+        return MeterFilter.maximumAllowableTags("filmorate.sql", "statement", MAX_STATEMENTS, MeterFilter.deny());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication
+    QueriesPerRequestFilter queriesPerRequestFilter(MeterRegistry registry) {
+        return new QueriesPerRequestFilter(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Число SQL-запросов, выполненных для текущего HTTP-запроса. Счетчик живет в потоке запроса; задачи,
+ * которые запрос отдает в пул потоков, учитываются, если обернуты в {@link #propagate(Runnable)}.
+ * Пакеты фоновых потоков, общие для многих запросов, не учитываются.
+ */
+public final class RequestQueryCounter {
+
+    private static final ThreadLocal<AtomicInteger> QUERIES = new ThreadLocal<>();
+
+    private RequestQueryCounter() {
+    }
+
+    /**
+     * Задача, которая в любом потоке считает запросы в счетчик потока, создавшего ее.
+     */
+    public static Runnable propagate(Runnable task) {
+        AtomicInteger queries = QUERIES.get();
+        if (queries == null) {
+            return task;
+        }
+
+        return () -> {
+            AtomicInteger previous = QUERIES.get();
+            QUERIES.set(queries);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    QUERIES.remove();
+                } else {
+                    QUERIES.set(previous);
+                }
+            }
+        };
+    }
+
+    static void start() {
+        QUERIES.set(new AtomicInteger());
+    }
+
+    static void increment() {
+        AtomicInteger queries = QUERIES.get();
+        if (queries != null) {
+            queries.incrementAndGet();
+        }
+    }
+
+    static int stop() {
+        AtomicInteger queries = QUERIES.get();
+        QUERIES.remove();
+        return queries == null ? 0 : queries.get();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Замеряет вызовы хранилищ ({@code filmorate.storage}) и сервисов ({@code filmorate.service})
+ * с тегами класса и метода. Для хранилищ дополнительно пишется размер возвращенной коллекции
+ * ({@code filmorate.storage.results}).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class StorageMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage..*Storage+.*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = time("filmorate.storage", joinPoint);
+        int size = result instanceof Collection<?> collection ? collection.size()
+                : result instanceof Map<?, ?> map ? map.size() : -1;
+        if (size >= 0) {
+            DistributionSummary.builder("filmorate.storage.results")
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .register(registry)
+                    .record(size);
+        }
+        return result;
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.service..*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("filmorate.service", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.enums.BulkImportStatus;
+
+/**
+ * Результат обработки одной строки пакетной загрузки. {@code index} — порядковый номер строки во входном потоке.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkImportResult {
+
+    private final int index;
+    private final BulkImportStatus status;
+    private final Long id;
+    private final String error;
+
+    public static BulkImportResult created(int index, Long id) {
+        return new BulkImportResult(index, BulkImportStatus.CREATED, id, null);
+    }
+
+    public static BulkImportResult rejected(int index, String error) {
+        return new BulkImportResult(index, BulkImportStatus.REJECTED, null, error);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -40,7 +41,8 @@ public class Film {
 
     private MpaRating mpa;
 
-    private Set<Long> likes = new HashSet<>();
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long likeCount;
 
     private Set<Genre> genres = new TreeSet<>(Comparator.comparing(Genre::getId));
 
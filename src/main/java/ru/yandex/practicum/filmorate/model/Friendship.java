@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Friendship {
+
+    @NotNull(message = "ID пользователя не может быть пустым!")
+    private Long userId;
+
+    @NotNull(message = "ID друга не может быть пустым!")
+    private Long friendId;
+}
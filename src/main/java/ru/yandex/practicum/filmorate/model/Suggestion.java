@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.enums.SuggestionType;
+
+/**
+ * Подсказка автодополнения: фильм или режиссер без загрузки связанных данных.
+ */
+@Getter
+@RequiredArgsConstructor
+public class Suggestion {
+
+    private final SuggestionType type;
+    private final long id;
+    private final String title;
+}
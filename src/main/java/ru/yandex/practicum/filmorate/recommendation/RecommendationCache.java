@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.recommendation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.index.SortedLongArrays;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Готовые рекомендации по пользователям. При первом запросе список один раз считается по графу в памяти
+ * и кладется в кэш, дальше запрос только читает его. В фоне пересчитываются закэшированные пользователи,
+ * помеченные устаревшими, — те, кто сам поставил или снял лайк, и случайная выборка лайкнувших тот же
+ * фильм (их соседство изменилось). Размер выборки на одно событие ограничен.
+ */
+@Slf4j
+@Component
+public class RecommendationCache {
+
+    private final RecommendationEngine recommendationEngine;
+    @Getter
+    private final Cache<Long, List<Long>> recommendations;
+    private final Set<Long> staleUsers = ConcurrentHashMap.newKeySet();
+    private final int maxInvalidations;
+
+    public RecommendationCache(RecommendationEngine recommendationEngine,
+                               @Value("${filmorate.recommendations.cache.maximum-size:100000}") long maximumSize,
+                               @Value("${filmorate.recommendations.cache.max-invalidations:1000}")
+                               int maxInvalidations) {
+        this.recommendationEngine = recommendationEngine;
+        this.recommendations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.maxInvalidations = maxInvalidations;
+    }
+
+    /**
+     * Рекомендованные ID фильмов; уже лайкнутые с момента пересчета фильмы отфильтровываются.
+     */
+    public List<Long> getRecommendations(long userId) {
+        List<Long> filmIds = recommendations.get(userId, recommendationEngine::recommend);
+
+        long[] likedFilms = recommendationEngine.getLikedFilms(userId);
+        return filmIds.stream()
+                .filter(filmId -> !SortedLongArrays.contains(likedFilms, filmId))
+                .toList();
+    }
+
+    public void markLikeChanged(long userId, long filmId) {
+        staleUsers.add(userId);
+
+        long[] filmUsers = recommendationEngine.getUsers(filmId);
+        if (filmUsers.length <= maxInvalidations) {
+            for (long filmUser : filmUsers) {
+                markStaleIfCached(filmUser);
+            }
+            return;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < maxInvalidations; i++) {
+            markStaleIfCached(filmUsers[random.nextInt(filmUsers.length)]);
+        }
+    }
+
+    private void markStaleIfCached(long userId) {
+        if (recommendations.asMap().containsKey(userId)) {
+            staleUsers.add(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.recommendations.cache.refresh-interval:PT5S}")
+    public void refreshStaleUsers() {
+        List<Long> staleIds = new ArrayList<>(staleUsers);
+        for (Long userId : staleIds) {
+            staleUsers.remove(userId);
+            recommendations.asMap().computeIfPresent(userId, (id, filmIds) -> recommendationEngine.recommend(id));
+        }
+
+        if (!staleIds.isEmpty()) {
+            log.debug("Пересчитаны рекомендации для {} устаревших пользователей", staleIds.size());
+        }
+    }
+}
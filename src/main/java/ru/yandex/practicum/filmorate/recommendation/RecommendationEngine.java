@@ -0,0 +1,220 @@
+package ru.yandex.practicum.filmorate.recommendation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.index.SortedLongArrays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Item-based рекомендации по лайкам. В памяти хранится только разреженная матрица лайков: отсортированные
+ * массивы фильмов пользователя и пользователей фильма. Кандидаты в соседи фильма — последние
+ * {@code maxUserLikes} фильмов (по ID) каждого его зрителя, а число совместных лайков с кандидатом
+ * считается пересечением массивов пользователей; по нему считается сходство Жаккара. Лайк помечает
+ * устаревшими списки соседей фильмов этого пользователя; они пересчитываются в фоне, а при запросе —
+ * только если фон не успел.
+ */
+@Slf4j
+@Component
+public class RecommendationEngine {
+
+    private static final Comparator<Neighbor> BY_SIMILARITY_DESC = Comparator
+            .comparingDouble(Neighbor::similarity).reversed()
+            .thenComparingLong(Neighbor::filmId);
+
+    private final Map<Long, long[]> userFilms = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> filmUsers = new HashMap<>();
+    private final Map<Long, List<Neighbor>> neighbors = new ConcurrentHashMap<>();
+    private final Set<Long> staleFilms = ConcurrentHashMap.newKeySet();
+    private final int neighborCount;
+    private final int resultLimit;
+    private final int maxUserLikes;
+
+    public RecommendationEngine(@Value("${filmorate.recommendations.neighbors:50}") int neighborCount,
+                                @Value("${filmorate.recommendations.limit:50}") int resultLimit,
+                                @Value("${filmorate.recommendations.max-user-likes:200}") int maxUserLikes) {
+        this.neighborCount = neighborCount;
+        this.resultLimit = resultLimit;
+        this.maxUserLikes = maxUserLikes;
+    }
+
+    /**
+     * @param likes пары {@code {filmId, userId}}; читаются один раз, поэтому могут идти потоком из базы
+     */
+    public synchronized void rebuild(Iterable<long[]> likes) {
+        Map<Long, LongList> filmsByUser = new HashMap<>();
+        Map<Long, LongList> usersByFilm = new HashMap<>();
+        for (long[] like : likes) {
+            filmsByUser.computeIfAbsent(like[1], k -> new LongList()).add(like[0]);
+            usersByFilm.computeIfAbsent(like[0], k -> new LongList()).add(like[1]);
+        }
+
+        userFilms.clear();
+        filmUsers.clear();
+        neighbors.clear();
+        staleFilms.clear();
+
+        filmsByUser.forEach((userId, films) -> userFilms.put(userId, films.toSortedArray()));
+        usersByFilm.forEach((filmId, users) -> filmUsers.put(filmId, users.toSortedArray()));
+        staleFilms.addAll(filmUsers.keySet());
+    }
+
+    public synchronized void addLike(long filmId, long userId) {
+        long[] films = userFilms.getOrDefault(userId, SortedLongArrays.EMPTY);
+        if (SortedLongArrays.contains(films, filmId)) {
+            return;
+        }
+
+        markStale(films);
+        userFilms.put(userId, SortedLongArrays.insert(films, filmId));
+        filmUsers.compute(filmId, (k, users) -> SortedLongArrays.insert(users, userId));
+        staleFilms.add(filmId);
+    }
+
+    public synchronized void removeLike(long filmId, long userId) {
+        long[] films = userFilms.getOrDefault(userId, SortedLongArrays.EMPTY);
+        if (!SortedLongArrays.contains(films, filmId)) {
+            return;
+        }
+
+        long[] remainingFilms = SortedLongArrays.remove(films, filmId);
+        if (remainingFilms == null) {
+            userFilms.remove(userId);
+        } else {
+            userFilms.put(userId, remainingFilms);
+            markStale(remainingFilms);
+        }
+        filmUsers.computeIfPresent(filmId, (k, users) -> SortedLongArrays.remove(users, userId));
+        staleFilms.add(filmId);
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        for (long userId : filmUsers.getOrDefault(filmId, SortedLongArrays.EMPTY)) {
+            removeLike(filmId, userId);
+        }
+        filmUsers.remove(filmId);
+        neighbors.remove(filmId);
+        staleFilms.remove(filmId);
+    }
+
+    /**
+     * Фильмы, которые пользователь еще не лайкал, по убыванию суммарного сходства с его лайками.
+     */
+    public List<Long> recommend(long userId) {
+        long[] likedFilms = userFilms.getOrDefault(userId, SortedLongArrays.EMPTY);
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (long likedFilmId : likedFilms) {
+            for (Neighbor neighbor : getNeighbors(likedFilmId)) {
+                if (!SortedLongArrays.contains(likedFilms, neighbor.filmId())) {
+                    scores.merge(neighbor.filmId(), neighbor.similarity(), Double::sum);
+                }
+            }
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new Neighbor(entry.getKey(), entry.getValue()))
+                .sorted(BY_SIMILARITY_DESC)
+                .limit(resultLimit)
+                .map(Neighbor::filmId)
+                .toList();
+    }
+
+    public long[] getLikedFilms(long userId) {
+        return userFilms.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    public synchronized long[] getUsers(long filmId) {
+        return filmUsers.getOrDefault(filmId, SortedLongArrays.EMPTY);
+    }
+
+    public List<Neighbor> getNeighbors(long filmId) {
+        if (staleFilms.contains(filmId)) {
+            return refreshNeighbors(filmId);
+        }
+        return neighbors.getOrDefault(filmId, List.of());
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.recommendations.refresh-interval:PT10S}")
+    public void refreshStaleNeighbors() {
+        List<Long> filmIds = new ArrayList<>(staleFilms);
+        filmIds.forEach(this::refreshNeighbors);
+        if (!filmIds.isEmpty()) {
+            log.debug("Пересчитаны соседи для {} фильмов", filmIds.size());
+        }
+    }
+
+    private synchronized List<Neighbor> refreshNeighbors(long filmId) {
+        staleFilms.remove(filmId);
+
+        long[] users = filmUsers.getOrDefault(filmId, SortedLongArrays.EMPTY);
+        Set<Long> candidates = new HashSet<>();
+        for (long userId : users) {
+            long[] films = userFilms.get(userId);
+            for (int i = Math.max(0, films.length - maxUserLikes); i < films.length; i++) {
+                if (films[i] != filmId) {
+                    candidates.add(films[i]);
+                }
+            }
+        }
+
+        List<Neighbor> result = candidates.stream()
+                .map(candidateId -> {
+                    long[] candidateUsers = filmUsers.get(candidateId);
+                    int common = SortedLongArrays.intersectionSize(users, candidateUsers);
+                    double similarity = (double) common / (users.length + candidateUsers.length - common);
+                    return new Neighbor(candidateId, similarity);
+                })
+                .sorted(BY_SIMILARITY_DESC)
+                .limit(neighborCount)
+                .toList();
+
+        if (result.isEmpty()) {
+            neighbors.remove(filmId);
+        } else {
+            neighbors.put(filmId, result);
+        }
+        return result;
+    }
+
+    /**
+     * Совместные лайки с новым или убранным фильмом меняют соседей всех фильмов пользователя.
+     */
+    private void markStale(long[] films) {
+        for (long otherFilmId : films) {
+            staleFilms.add(otherFilmId);
+        }
+    }
+
+    public record Neighbor(long filmId, double similarity) {
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
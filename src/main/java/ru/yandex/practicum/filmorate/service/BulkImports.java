@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.practicum.filmorate.model.BulkImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Общий цикл пакетной загрузки: потоковое чтение JSON-массива или NDJSON, построчная проверка
+ * и сохранение накопленных строк пачками по {@code batchSize}.
+ */
+@Slf4j
+final class BulkImports {
+
+    private BulkImports() {
+    }
+
+    @FunctionalInterface
+    interface BatchHandler<T> {
+
+        /**
+         * Сохраняет пачку и возвращает результат для каждой строки; {@code indexes} — номера строк во входе.
+         */
+        List<BulkImportResult> save(List<T> rows, List<Integer> indexes);
+    }
+
+    /**
+     * Результаты отдаются в {@code sink} по мере сохранения пачек в порядке номеров строк, поэтому в памяти
+     * держится не больше {@code batchSize} строк и результатов.
+     *
+     * @param validator возвращает текст ошибки для отклоняемой строки или {@code null}
+     * @return количество обработанных строк
+     */
+    static <T> int importRows(ObjectReader reader, InputStream body, int batchSize,
+                              Function<T, String> validator, BatchHandler<T> batchHandler,
+                              Consumer<BulkImportResult> sink) throws IOException {
+        Batch<T> batch = new Batch<>(batchSize, batchHandler, sink);
+        int index = 0;
+
+        try (MappingIterator<T> iterator = reader.readValues(body)) {
+            for (; ; index++) {
+                T row;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    row = iterator.nextValue();
+                } catch (JsonParseException exception) {
+                    batch.reject(index++, "Некорректный JSON: " + exception.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException exception) {
+                    batch.reject(index, "Некорректные данные: " + exception.getOriginalMessage());
+                    continue;
+                }
+
+                String error = validator.apply(row);
+                if (error != null) {
+                    batch.reject(index, error);
+                } else {
+                    batch.add(index, row);
+                }
+            }
+        }
+        batch.flush();
+
+        return index;
+    }
+
+    static <T> String validateConstraints(Validator validator, T row) {
+        Set<ConstraintViolation<T>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Текущая пачка вместе с отклоненными до ее сохранения строками.
+     */
+    private static final class Batch<T> {
+
+        private final int batchSize;
+        private final BatchHandler<T> batchHandler;
+        private final Consumer<BulkImportResult> sink;
+        private final List<T> rows;
+        private final List<Integer> indexes;
+        private final List<BulkImportResult> rejected = new ArrayList<>();
+
+        Batch(int batchSize, BatchHandler<T> batchHandler, Consumer<BulkImportResult> sink) {
+            this.batchSize = batchSize;
+            this.batchHandler = batchHandler;
+            this.sink = sink;
+            this.rows = new ArrayList<>(batchSize);
+            this.indexes = new ArrayList<>(batchSize);
+        }
+
+        void add(int index, T row) {
+            rows.add(row);
+            indexes.add(index);
+            flushIfFull();
+        }
+
+        void reject(int index, String error) {
+            rejected.add(BulkImportResult.rejected(index, error));
+            flushIfFull();
+        }
+
+        void flush() {
+            List<BulkImportResult> results = new ArrayList<>(rejected);
+            if (!rows.isEmpty()) {
+                try {
+                    results.addAll(batchHandler.save(rows, indexes));
+                } catch (DataAccessException exception) {
+                    log.warn("Не удалось сохранить пачку из {} строк: {}", rows.size(), exception.getMessage());
+                    indexes.forEach(index -> results.add(BulkImportResult.rejected(index, "Ошибка сохранения пачки")));
+                }
+            }
+
+            results.sort(Comparator.comparingInt(BulkImportResult::getIndex));
+            results.forEach(sink);
+
+            rows.clear();
+            indexes.clear();
+            rejected.clear();
+        }
+
+        private void flushIfFull() {
+            if (rows.size() + rejected.size() >= batchSize) {
+                flush();
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.director.DirectorStorage;
@@ -15,6 +16,7 @@ import java.util.List;
 public class DirectorService {
 
     private final DirectorStorage directorStorage;
+    private final EntityCache entityCache;
 
     public Director addDirector(Director director) {
         log.info("Добавление режиссера {}", director.getName());
@@ -24,7 +26,11 @@ public class DirectorService {
     public Director updateDirector(Director director) {
         log.info("Обновление данных режиссера {}", director.getName());
         validateExists(director.getId());
-        return directorStorage.updateDirector(director);
+
+        Director updatedDirector = directorStorage.updateDirector(director);
+        entityCache.getFilms().invalidateAll();
+
+        return updatedDirector;
     }
 
     public List<Director> findAll() {
@@ -47,6 +53,7 @@ public class DirectorService {
         log.info("Удаление режиссера с ID={}", id);
         validateExists(id);
         directorStorage.deleteById(id);
+        entityCache.getFilms().invalidateAll();
     }
 
     private void validateExists(Long id) {
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.storage.feed.FeedStorage;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Переносит события ленты старше срока хранения в таблицу {@code feed_archive}. Каждая пачка переносится
+ * в своей транзакции, чтобы не держать долгих блокировок на горячей таблице.
+ */
+@Slf4j
+@Service
+public class FeedArchiver {
+
+    private final FeedStorage feedStorage;
+    private final Duration retention;
+    private final int batchSize;
+
+    public FeedArchiver(FeedStorage feedStorage,
+                        @Value("${filmorate.feed.retention:365d}") Duration retention,
+                        @Value("${filmorate.feed.archive-batch-size:1000}") int batchSize) {
+        this.feedStorage = feedStorage;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.feed.archive-interval:PT1H}")
+    public int archiveExpiredEvents() {
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+
+        int archived = 0;
+        int moved;
+        do {
+            moved = feedStorage.archiveOlderThan(cutoff, batchSize);
+            archived += moved;
+        } while (moved == batchSize);
+
+        if (archived > 0) {
+            log.info("В архив ленты перенесено событий: {}", archived);
+        }
+        return archived;
+    }
+}
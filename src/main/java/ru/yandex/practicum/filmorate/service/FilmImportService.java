@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.BulkImportResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная загрузка фильмов. В памяти держится только текущая пачка, которая сохраняется одной транзакцией.
+ */
+@Slf4j
+@Service
+public class FilmImportService {
+
+    private final ObjectReader filmReader;
+    private final Validator validator;
+    private final FilmStorage filmStorage;
+    private final FilmService filmService;
+    private final int batchSize;
+
+    public FilmImportService(ObjectMapper objectMapper,
+                             Validator validator,
+                             FilmStorage filmStorage,
+                             FilmService filmService,
+                             @Value("${filmorate.bulk.batch-size:500}") int batchSize) {
+        this.filmReader = objectMapper.readerFor(Film.class);
+        this.validator = validator;
+        this.filmStorage = filmStorage;
+        this.filmService = filmService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Передает результат каждой строки в {@code sink} сразу после сохранения ее пачки.
+     */
+    public void importFilms(InputStream body, Consumer<BulkImportResult> sink) throws IOException {
+        log.info("Пакетная загрузка фильмов");
+
+        int processed = BulkImports.importRows(filmReader, body, batchSize, this::validate, this::saveBatch, sink);
+
+        log.info("Пакетная загрузка фильмов завершена, обработано строк: {}", processed);
+    }
+
+    private List<BulkImportResult> saveBatch(List<Film> batch, List<Integer> indexes) {
+        List<Film> addedFilms = filmStorage.addFilms(batch);
+
+        List<BulkImportResult> results = new ArrayList<>(addedFilms.size());
+        for (int i = 0; i < addedFilms.size(); i++) {
+            results.add(BulkImportResult.created(indexes.get(i), addedFilms.get(i).getId()));
+        }
+        return results;
+    }
+
+    private String validate(Film film) {
+        String violations = BulkImports.validateConstraints(validator, film);
+        if (violations != null) {
+            return violations;
+        }
+
+        try {
+            filmService.validateReferences(film);
+        } catch (NotFoundException exception) {
+            return exception.getMessage();
+        }
+        return null;
+    }
+}
@@ -6,18 +6,20 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
 import ru.yandex.practicum.filmorate.dao.MpaRatingDbStorage;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Suggestion;
 import ru.yandex.practicum.filmorate.model.enums.EventOperation;
 import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
 import ru.yandex.practicum.filmorate.storage.director.DirectorStorage;
 import ru.yandex.practicum.filmorate.storage.feed.FeedStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -30,12 +32,19 @@ public class FilmService {
     private final GenreDbStorage genreDbStorage;
     private final FeedStorage feedStorage;
     private final DirectorStorage directorStorage;
+    private final RecommendationCache recommendationCache;
+    private final AutocompleteIndex autocompleteIndex;
 
     public List<Film> getAllFilms() {
         log.info("Получение списка всех фильмов");
         return filmStorage.findAll();
     }
 
+    public List<Film> getFilms(Long afterId, int limit) {
+        log.info("Получение страницы фильмов после фильма с ID={}", afterId);
+        return filmStorage.findPage(afterId, limit);
+    }
+
     public Film getFilmById(Long id) {
         log.info("Получение фильма с id {}", id);
         return filmStorage.findById(id);
@@ -43,23 +52,24 @@ public class FilmService {
 
     public Film addFilm(Film film) {
         log.info("Добавление фильма {}", film.getName());
-        validateGenresAndMpaRating(film);
+        validateReferences(film);
         return filmStorage.addFilm(film);
     }
 
     public Film updateFilm(Film film) {
         log.info("Обновление данных фильма {}", film.getName());
 
-        validateGenresAndMpaRating(film);
-        getFilmById(film.getId());
+        validateReferences(film);
+        validateFilmExists(film.getId());
 
         return filmStorage.updateFilm(film);
     }
 
     public void addLike(Long filmId, Long userId) {
-        filmStorage.findById(filmId);
-        userStorage.findById(userId);
+        validateFilmExists(filmId);
+        validateUserExists(userId);
         filmStorage.addLike(filmId, userId);
+        recommendationCache.markLikeChanged(userId, filmId);
         feedStorage.addEvent(userId, filmId, EventOperation.ADD, EventType.LIKE);
 
         log.info("Пользователь с ID={} успешно поставил лайк фильму с ID={}", userId, filmId);
@@ -68,14 +78,21 @@ public class FilmService {
     public void removeLike(Long filmId, Long userId) {
         log.info("Удаление лайка у фильма с ID={} от пользователя с ID={}", filmId, userId);
 
-        filmStorage.findById(filmId);
-        userStorage.findById(userId);
+        validateFilmExists(filmId);
+        validateUserExists(userId);
         filmStorage.removeLike(filmId, userId);
+        recommendationCache.markLikeChanged(userId, filmId);
         feedStorage.addEvent(userId, filmId, EventOperation.REMOVE, EventType.LIKE);
 
         log.info("Пользователь с ID={} успешно удалил лайк у фильма с ID={}", userId, filmId);
     }
 
+    public List<Long> getLikes(Long filmId, Long afterUserId, int limit) {
+        log.info("Получение лайков фильма с ID={} после пользователя с ID={}", filmId, afterUserId);
+        validateFilmExists(filmId);
+        return filmStorage.findLikes(filmId, afterUserId, limit);
+    }
+
     public List<Film> getPopularFilms(Integer count, Integer genreId, Integer year) {
         log.info("Получение списка наиболее популярных фильмов по количеству лайков");
         return filmStorage.findPopular(count, genreId, year);
@@ -96,18 +113,40 @@ public class FilmService {
         return filmStorage.getFilmsQuery(query, by);
     }
 
+    public List<Suggestion> autocomplete(String prefix, int limit) {
+        log.debug("Автодополнение по префиксу: {}", prefix);
+        return autocompleteIndex.suggest(prefix, limit);
+    }
+
     public List<Film> getRecommendations(Long userId) {
-        userStorage.findById(userId);
+        validateUserExists(userId);
         return filmStorage.getRecommendations(userId);
     }
 
     public void deleteFilm(Long filmId) {
         log.info("Удаление фильма с ID={}", filmId);
-        filmStorage.findById(filmId);
+        validateFilmExists(filmId);
         filmStorage.deleteById(filmId);
     }
 
-    private void validateGenresAndMpaRating(Film film) {
+    private void validateFilmExists(Long filmId) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException("Фильм с ID=" + filmId + " не найден");
+        }
+    }
+
+    private void validateUserExists(Long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с ID=" + userId + " не найден");
+        }
+    }
+
+    /**
+     * Проверяет, что MPA рейтинг, жанры и режиссеры фильма существуют.
+     *
+     * @throws NotFoundException если ссылка указывает на несуществующую запись
+     */
+    public void validateReferences(Film film) {
         if (film.getMpa() == null) {
             throw new NotFoundException("MPA рейтинг не может быть null");
         }
@@ -117,16 +156,20 @@ public class FilmService {
         }
 
         if (film.getGenres() != null) {
-            Set<Integer> existingGenreIds = genreDbStorage.findAll().stream()
-                    .map(Genre::getId)
-                    .collect(Collectors.toSet());
-
             for (Genre genre : film.getGenres()) {
-                if (!existingGenreIds.contains(genre.getId())) {
+                if (!genreDbStorage.existsById(genre.getId())) {
                     throw new NotFoundException("Жанр с ID=" + genre.getId() + " не найден");
                 }
             }
         }
+
+        if (film.getDirectors() != null) {
+            for (Director director : film.getDirectors()) {
+                if (director.getId() == null || !directorStorage.existsById(director.getId())) {
+                    throw new NotFoundException("Режиссер с ID=" + director.getId() + " не найден");
+                }
+            }
+        }
     }
 
     public List<Film> getCommonFilmsWithFriend(Long userId, Long friendId) {
@@ -50,11 +50,9 @@ public class ReviewService {
     }
 
 
-    public List<Review> findReviews(Long filmId, int count) {
+    public List<Review> findReviews(Long filmId, Long after, int count) {
         log.info("Получения списка отзывов");
-        return (filmId != null)
-                ? reviewStorage.findAllByFilmId(filmId, count)
-                : reviewStorage.findAll(count);
+        return reviewStorage.findRanked(filmId, after, count);
     }
 
     public Review findById(Long reviewId) {
@@ -93,7 +91,12 @@ public class ReviewService {
     }
 
     private void validateReview(Review review) {
-        userStorage.findById(review.getUserId());
-        filmStorage.findById(review.getFilmId());
+        if (!userStorage.existsById(review.getUserId())) {
+            throw new NotFoundException("Пользователь с ID=" + review.getUserId() + " не найден");
+        }
+
+        if (!filmStorage.existsById(review.getFilmId())) {
+            throw new NotFoundException("Фильм с ID=" + review.getFilmId() + " не найден");
+        }
     }
 }
\ No newline at end of file
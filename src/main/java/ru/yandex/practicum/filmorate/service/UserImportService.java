@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.BulkImportResult;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.EventOperation;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.storage.feed.FeedStorage;
+import ru.yandex.practicum.filmorate.storage.timeline.TimelineStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная загрузка пользователей и дружб. Существование email и пользователей проверяется одним запросом
+ * на пачку, а каждая пачка вместе с событиями ленты сохраняется в отдельной транзакции. Ленты друзей
+ * дополняются после ее фиксации, как и при добавлении в друзья по одному. Результаты строк передаются
+ * в {@code sink} по мере сохранения пачек.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private final ObjectReader userReader;
+    private final ObjectReader friendshipReader;
+    private final Validator validator;
+    private final UserStorage userStorage;
+    private final FeedStorage feedStorage;
+    private final TimelineStorage timelineStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public UserImportService(ObjectMapper objectMapper,
+                             Validator validator,
+                             UserStorage userStorage,
+                             FeedStorage feedStorage,
+                             TimelineStorage timelineStorage,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${filmorate.bulk.batch-size:500}") int batchSize) {
+        this.userReader = objectMapper.readerFor(User.class);
+        this.friendshipReader = objectMapper.readerFor(Friendship.class);
+        this.validator = validator;
+        this.userStorage = userStorage;
+        this.feedStorage = feedStorage;
+        this.timelineStorage = timelineStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void importUsers(InputStream body, Consumer<BulkImportResult> sink) throws IOException {
+        log.info("Пакетная загрузка пользователей");
+
+        int processed = BulkImports.importRows(userReader, body, batchSize,
+                (User user) -> BulkImports.validateConstraints(validator, user), this::saveUsers, sink);
+
+        log.info("Пакетная загрузка пользователей завершена, обработано строк: {}", processed);
+    }
+
+    public void importFriendships(InputStream body, Consumer<BulkImportResult> sink) throws IOException {
+        log.info("Пакетная загрузка дружб");
+
+        int processed = BulkImports.importRows(friendshipReader, body, batchSize,
+                this::validateFriendship, this::saveFriendships, sink);
+
+        log.info("Пакетная загрузка дружб завершена, обработано строк: {}", processed);
+    }
+
+    private List<BulkImportResult> saveUsers(List<User> batch, List<Integer> indexes) {
+        Set<String> takenEmails = userStorage.findExistingEmails(batch.stream().map(User::getEmail).toList());
+
+        List<BulkImportResult> results = new ArrayList<>(batch.size());
+        List<User> users = new ArrayList<>(batch.size());
+        List<Integer> userIndexes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            User user = batch.get(i);
+            if (!takenEmails.add(user.getEmail())) {
+                results.add(BulkImportResult.rejected(indexes.get(i),
+                        "Пользователь с email " + user.getEmail() + " уже существует"));
+                continue;
+            }
+            if (user.getName() == null || user.getName().isBlank()) {
+                user.setName(user.getLogin());
+            }
+            users.add(user);
+            userIndexes.add(indexes.get(i));
+        }
+
+        userStorage.addUsers(users);
+        for (int i = 0; i < users.size(); i++) {
+            results.add(BulkImportResult.created(userIndexes.get(i), users.get(i).getId()));
+        }
+        return results;
+    }
+
+    private String validateFriendship(Friendship friendship) {
+        String violations = BulkImports.validateConstraints(validator, friendship);
+        if (violations != null) {
+            return violations;
+        }
+        if (friendship.getUserId().equals(friendship.getFriendId())) {
+            return "Пользователь не может добавить в друзья самого себя";
+        }
+        return null;
+    }
+
+    private List<BulkImportResult> saveFriendships(List<Friendship> batch, List<Integer> indexes) {
+        Set<Long> userIds = new HashSet<>();
+        batch.forEach(friendship -> {
+            userIds.add(friendship.getUserId());
+            userIds.add(friendship.getFriendId());
+        });
+        Set<Long> existingIds = userStorage.findExistingIds(userIds);
+
+        List<BulkImportResult> results = new ArrayList<>(batch.size());
+        List<Friendship> friendships = new ArrayList<>(batch.size());
+        List<Integer> friendshipIndexes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Friendship friendship = batch.get(i);
+            Long missingId = !existingIds.contains(friendship.getUserId()) ? friendship.getUserId()
+                    : !existingIds.contains(friendship.getFriendId()) ? friendship.getFriendId() : null;
+            if (missingId != null) {
+                results.add(BulkImportResult.rejected(indexes.get(i), "Пользователь с ID=" + missingId + " не найден"));
+                continue;
+            }
+            friendships.add(friendship);
+            friendshipIndexes.add(indexes.get(i));
+        }
+
+        boolean[] inserted = transactionTemplate.execute(status -> {
+            boolean[] added = userStorage.addFriends(friendships);
+            long timestamp = Instant.now().toEpochMilli();
+            List<Feed> events = new ArrayList<>();
+            for (int i = 0; i < added.length; i++) {
+                if (added[i]) {
+                    events.add(friendEvent(friendships.get(i), timestamp));
+                }
+            }
+            feedStorage.addEvents(events);
+            return added;
+        });
+
+        for (int i = 0; i < friendships.size(); i++) {
+            if (inserted[i]) {
+                timelineStorage.follow(friendships.get(i).getUserId(), friendships.get(i).getFriendId());
+            }
+            results.add(inserted[i]
+                    ? BulkImportResult.created(friendshipIndexes.get(i), null)
+                    : BulkImportResult.rejected(friendshipIndexes.get(i), "Пользователи уже являются друзьями"));
+        }
+        return results;
+    }
+
+    private Feed friendEvent(Friendship friendship, long timestamp) {
+        Feed event = new Feed();
+        event.setUserId(friendship.getUserId());
+        event.setEntityId(friendship.getFriendId());
+        event.setTimestamp(timestamp);
+        event.setEventType(EventType.FRIEND);
+        event.setEventOperation(EventOperation.ADD);
+        return event;
+    }
+}
@@ -9,6 +9,7 @@ import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.model.enums.EventOperation;
 import ru.yandex.practicum.filmorate.model.enums.EventType;
 import ru.yandex.practicum.filmorate.storage.feed.FeedStorage;
+import ru.yandex.practicum.filmorate.storage.timeline.TimelineStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.List;
@@ -20,12 +21,18 @@ public class UserService {
 
     private final UserStorage userStorage;
     private final FeedStorage feedStorage;
+    private final TimelineStorage timelineStorage;
 
     public List<User> getAllUsers() {
         log.info("Получение списка всех пользователей");
         return userStorage.findAll();
     }
 
+    public List<User> getUsers(Long afterId, int limit) {
+        log.info("Получение страницы пользователей после пользователя с ID={}", afterId);
+        return userStorage.findPage(afterId, limit);
+    }
+
     public User getUserById(Long id) {
         log.info("Получение пользователя с ID={}", id);
         return userStorage.findById(id);
@@ -44,7 +51,7 @@ public class UserService {
     public User updateUser(User user) {
         log.info("Обновление данных пользователя {}", user.getLogin());
 
-        getUserById(user.getId());
+        validateUserExists(user.getId());
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
         }
@@ -60,6 +67,7 @@ public class UserService {
         }
 
         userStorage.addFriend(userId, friendId);
+        timelineStorage.follow(userId, friendId);
         feedStorage.addEvent(userId, friendId, EventOperation.ADD, EventType.FRIEND);
 
         log.info("Пользователи с ID={} и ID={} успешно добавлены друг к другу в друзья", userId, friendId);
@@ -73,6 +81,7 @@ public class UserService {
         }
 
         userStorage.removeFriend(userId, friendId);
+        timelineStorage.unfollow(userId, friendId);
         feedStorage.addEvent(userId, friendId, EventOperation.REMOVE, EventType.FRIEND);
 
         log.info("Пользователи с ID={} и ID={} успешно удалены друг у друга из друзей", userId, friendId);
@@ -80,15 +89,15 @@ public class UserService {
 
     public List<User> getFriends(Long userId) {
         log.info("Получение списка друзей пользователя с ID={}", userId);
-        userStorage.findById(userId);
+        validateUserExists(userId);
         return userStorage.getFriends(userId);
     }
 
     public List<User> getCommonFriends(Long userId, Long otherUserId) {
         log.info("Получение списка общих друзей для пользователей с ID={} и ID={}", userId, otherUserId);
 
-        userStorage.findById(userId);
-        userStorage.findById(otherUserId);
+        validateUserExists(userId);
+        validateUserExists(otherUserId);
 
         return userStorage.getCommonFriends(userId, otherUserId);
     }
@@ -96,15 +105,30 @@ public class UserService {
     public void deleteUser(Long userId) {
         log.info("Удаление пользователя с ID={}", userId);
 
-        if (!userStorage.existsById(userId)) {
-            throw new NotFoundException("Пользователь с ID=" + userId + " не найден");
-        }
-
+        validateUserExists(userId);
         userStorage.deleteById(userId);
     }
 
     public List<Feed> findByUser(Long userId) {
-        getUserById(userId);
+        validateUserExists(userId);
         return feedStorage.findByUser(userId);
     }
+
+    public List<Feed> findFeedPage(Long userId, Long beforeEventId, int limit) {
+        log.info("Получение страницы ленты пользователя с ID={} до события с ID={}", userId, beforeEventId);
+        validateUserExists(userId);
+        return feedStorage.findPageByUser(userId, beforeEventId, limit);
+    }
+
+    public List<Feed> getTimeline(Long userId, Long beforeEventId, int limit) {
+        log.info("Получение ленты друзей пользователя с ID={} до события с ID={}", userId, beforeEventId);
+        validateUserExists(userId);
+        return timelineStorage.findPage(userId, beforeEventId, limit);
+    }
+
+    private void validateUserExists(Long userId) {
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с ID=" + userId + " не найден");
+        }
+    }
 }
\ No newline at end of file
@@ -10,5 +10,22 @@ public interface FeedStorage {
 
     void addEvent(Long userId, Long entityId, EventOperation eventOperation, EventType eventType);
 
+    void addEvents(List<Feed> events);
+
+    /**
+     * Все события пользователя, от старых к новым.
+     */
     List<Feed> findByUser(Long userId);
+
+    /**
+     * События пользователя с ID меньше {@code beforeEventId}, от новых к старым.
+     */
+    List<Feed> findPageByUser(Long userId, Long beforeEventId, int limit);
+
+    /**
+     * Переносит в архив не больше {@code limit} самых старых событий с временем раньше {@code timestamp}.
+     *
+     * @return число перенесенных событий
+     */
+    int archiveOlderThan(long timestamp, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+
+/**
+ * Кэширует фильмы по ID. Запись через хранилище только сбрасывает элемент кэша: возвращенный вызывающему
+ * коду объект изменяем, поэтому в кэш попадают лишь экземпляры, загруженные из базы при чтении.
+ */
+@Primary
+@Component
+public class CachingFilmStorage implements FilmStorage {
+
+    private final FilmStorage filmStorage;
+    private final EntityCache entityCache;
+
+    public CachingFilmStorage(@Qualifier("filmDbStorage") FilmStorage filmStorage, EntityCache entityCache) {
+        this.filmStorage = filmStorage;
+        this.entityCache = entityCache;
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return filmStorage.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        return filmStorage.addFilms(films);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        Film updatedFilm = filmStorage.updateFilm(film);
+        entityCache.getFilms().invalidate(film.getId());
+        return updatedFilm;
+    }
+
+    @Override
+    public Film findById(Long id) {
+        return entityCache.getFilms().get(id, filmStorage::findById);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return entityCache.getFilms().getIfPresent(id) != null || filmStorage.existsById(id);
+    }
+
+    @Override
+    public List<Film> findAll() {
+        return filmStorage.findAll();
+    }
+
+    @Override
+    public List<Film> findPage(Long afterId, int limit) {
+        return filmStorage.findPage(afterId, limit);
+    }
+
+    @Override
+    public void addLike(Long filmId, Long userId) {
+        filmStorage.addLike(filmId, userId);
+        entityCache.getFilms().invalidate(filmId);
+    }
+
+    @Override
+    public void removeLike(Long filmId, Long userId) {
+        filmStorage.removeLike(filmId, userId);
+        entityCache.getFilms().invalidate(filmId);
+    }
+
+    @Override
+    public List<Long> findLikes(Long filmId, Long afterUserId, int limit) {
+        return filmStorage.findLikes(filmId, afterUserId, limit);
+    }
+
+    @Override
+    public List<Film> findPopular(Integer count, Integer genreId, Integer year) {
+        return filmStorage.findPopular(count, genreId, year);
+    }
+
+    @Override
+    public List<Film> findFilmsByDirectorSorted(Long directorId, String sortBy) {
+        return filmStorage.findFilmsByDirectorSorted(directorId, sortBy);
+    }
+
+    @Override
+    public List<Film> getFilmsQuery(String query, List<String> by) {
+        return filmStorage.getFilmsQuery(query, by);
+    }
+
+    @Override
+    public List<Film> getRecommendations(Long userId) {
+        return filmStorage.getRecommendations(userId);
+    }
+
+    @Override
+    public void deleteById(Long filmId) {
+        filmStorage.deleteById(filmId);
+        entityCache.getFilms().invalidate(filmId);
+    }
+
+    @Override
+    public List<Film> getCommonFilmsWithFriend(Long userId, Long friendId) {
+        return filmStorage.getCommonFilmsWithFriend(userId, friendId);
+    }
+}
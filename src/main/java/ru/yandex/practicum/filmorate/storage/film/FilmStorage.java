@@ -8,16 +8,24 @@ public interface FilmStorage {
 
     Film addFilm(Film film);
 
+    List<Film> addFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     Film findById(Long id);
 
+    boolean existsById(Long id);
+
     List<Film> findAll();
 
+    List<Film> findPage(Long afterId, int limit);
+
     void addLike(Long filmId, Long userId);
 
     void removeLike(Long filmId, Long userId);
 
+    List<Long> findLikes(Long filmId, Long afterUserId, int limit);
+
     List<Film> findPopular(Integer count, Integer genreId, Integer year);
 
     List<Film> findFilmsByDirectorSorted(Long directorId, String sortBy);
@@ -14,9 +14,11 @@ public interface ReviewStorage {
 
     Review findById(Long reviewId);
 
-    List<Review> findAllByFilmId(Long filmId, int count);
-
-    List<Review> findAll(int count);
+    /**
+     * Отзывы по убыванию полезности, при равенстве — по возрастанию ID. Без {@code filmId} — отзывы
+     * всех фильмов; {@code afterReviewId} — последний отзыв предыдущей страницы.
+     */
+    List<Review> findRanked(Long filmId, Long afterReviewId, int count);
 
     void addLike(Long reviewId, Long userId);
 
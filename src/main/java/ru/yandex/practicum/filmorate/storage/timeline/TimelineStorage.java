@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.storage.timeline;
+
+import ru.yandex.practicum.filmorate.model.Feed;
+
+import java.util.List;
+
+public interface TimelineStorage {
+
+    /**
+     * Раскладывает по лентам подписчиков еще не разложенные события.
+     */
+    void fanOutPending();
+
+    void follow(Long userId, Long authorId);
+
+    void unfollow(Long userId, Long authorId);
+
+    /**
+     * События друзей пользователя с ID меньше {@code beforeEventId}, от новых к старым.
+     */
+    List<Feed> findPage(Long userId, Long beforeEventId, int limit);
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Кэширует пользователей по ID. Как и в {@link ru.yandex.practicum.filmorate.storage.film.CachingFilmStorage},
+ * запись через хранилище только сбрасывает элемент кэша.
+ */
+@Primary
+@Component
+public class CachingUserStorage implements UserStorage {
+
+    private final UserStorage userStorage;
+    private final EntityCache entityCache;
+
+    public CachingUserStorage(@Qualifier("userDbStorage") UserStorage userStorage, EntityCache entityCache) {
+        this.userStorage = userStorage;
+        this.entityCache = entityCache;
+    }
+
+    @Override
+    public User addUser(User user) {
+        return userStorage.addUser(user);
+    }
+
+    @Override
+    public List<User> addUsers(List<User> users) {
+        return userStorage.addUsers(users);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        User updatedUser = userStorage.updateUser(user);
+        entityCache.getUsers().invalidate(user.getId());
+        return updatedUser;
+    }
+
+    @Override
+    public User findById(Long id) {
+        return entityCache.getUsers().get(id, userStorage::findById);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return userStorage.findAll();
+    }
+
+    @Override
+    public List<User> findPage(Long afterId, int limit) {
+        return userStorage.findPage(afterId, limit);
+    }
+
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        userStorage.addFriend(userId, friendId);
+    }
+
+    @Override
+    public boolean[] addFriends(List<Friendship> friendships) {
+        return userStorage.addFriends(friendships);
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        userStorage.removeFriend(userId, friendId);
+    }
+
+    @Override
+    public List<User> getFriends(Long userId) {
+        return userStorage.getFriends(userId);
+    }
+
+    @Override
+    public List<User> getCommonFriends(Long userId, Long otherUserId) {
+        return userStorage.getCommonFriends(userId, otherUserId);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return entityCache.getUsers().getIfPresent(id) != null || userStorage.existsById(id);
+    }
+
+    @Override
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        return userStorage.findExistingIds(ids);
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return userStorage.findExistingEmails(emails);
+    }
+
+    @Override
+    public void deleteById(Long userId) {
+        userStorage.deleteById(userId);
+        entityCache.getUsers().invalidate(userId);
+    }
+}
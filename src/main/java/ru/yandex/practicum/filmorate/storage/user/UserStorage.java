@@ -1,21 +1,33 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface UserStorage {
 
     User addUser(User user);
 
+    List<User> addUsers(List<User> users);
+
     User updateUser(User user);
 
     User findById(Long id);
 
     List<User> findAll();
 
+    List<User> findPage(Long afterId, int limit);
+
     void addFriend(Long userId, Long friendId);
 
+    /**
+     * Добавляет дружбы пакетно; для каждой пары возвращает {@code false}, если она уже была.
+     */
+    boolean[] addFriends(List<Friendship> friendships);
+
     void removeFriend(Long userId, Long friendId);
 
     List<User> getFriends(Long userId);
@@ -24,5 +36,9 @@ public interface UserStorage {
 
     boolean existsById(Long id);
 
+    Set<Long> findExistingIds(Collection<Long> ids);
+
+    Set<String> findExistingEmails(Collection<String> emails);
+
     void deleteById(Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+CREATE INDEX IF NOT EXISTS film_like_user_idx ON film_like (user_id, film_id);
+
+CREATE INDEX IF NOT EXISTS friendship_friend_idx ON friendship (friend_id, user_id);
+
+CREATE INDEX IF NOT EXISTS film_director_director_idx ON film_director (director_id, film_id);
+
+CREATE INDEX IF NOT EXISTS film_genre_genre_idx ON film_genre (genre_id, film_id);
+
+CREATE INDEX IF NOT EXISTS review_film_useful_idx ON review (film_id, useful DESC);
+
+CREATE INDEX IF NOT EXISTS feed_user_timestamp_idx ON feed (user_id, timestamp);
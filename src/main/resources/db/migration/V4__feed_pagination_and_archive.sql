@@ -0,0 +1,16 @@
+DROP INDEX IF EXISTS feed_user_timestamp_idx;
+
+CREATE INDEX IF NOT EXISTS feed_user_event_idx ON feed (user_id, event_id);
+
+CREATE INDEX IF NOT EXISTS feed_timestamp_idx ON feed (timestamp);
+
+CREATE TABLE IF NOT EXISTS feed_archive (
+    event_id BIGINT NOT NULL PRIMARY KEY,
+    user_id  BIGINT REFERENCES app_user(user_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    entity_id BIGINT NOT NULL,
+    timestamp BIGINT NOT NULL,
+    event_type VARCHAR(200) NOT NULL,
+    event_operation VARCHAR(200) NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS feed_archive_user_event_idx ON feed_archive (user_id, event_id);
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS timeline_entry (
+    user_id  BIGINT NOT NULL REFERENCES app_user(user_id) ON DELETE CASCADE ON UPDATE CASCADE,
+    event_id BIGINT NOT NULL REFERENCES feed(event_id) ON DELETE CASCADE,
+    PRIMARY KEY (user_id, event_id)
+    );
+
+CREATE TABLE IF NOT EXISTS timeline_cursor (
+    cursor_id     INTEGER NOT NULL PRIMARY KEY,
+    last_event_id BIGINT  NOT NULL
+    );
+
+MERGE INTO timeline_cursor (cursor_id, last_event_id) KEY (cursor_id) VALUES (1, 0);
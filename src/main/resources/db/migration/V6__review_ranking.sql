@@ -0,0 +1,5 @@
+DROP INDEX IF EXISTS review_film_useful_idx;
+
+CREATE INDEX IF NOT EXISTS review_film_useful_idx ON review (film_id, useful DESC, review_id);
+
+CREATE INDEX IF NOT EXISTS review_useful_idx ON review (useful DESC, review_id);
@@ -0,0 +1,17 @@
+ALTER TABLE feed ADD COLUMN IF NOT EXISTS fanned_out BOOLEAN DEFAULT FALSE NOT NULL;
+
+ALTER TABLE feed ADD COLUMN IF NOT EXISTS pulled BOOLEAN DEFAULT FALSE NOT NULL;
+
+UPDATE feed SET fanned_out = TRUE,
+    pulled = (SELECT COUNT(*) FROM friendship WHERE friendship.friend_id = feed.user_id) > 1000
+    WHERE event_id <= (SELECT last_event_id FROM timeline_cursor WHERE cursor_id = 1);
+
+CREATE INDEX IF NOT EXISTS feed_fanned_out_event_idx ON feed (fanned_out, event_id);
+
+CREATE TABLE IF NOT EXISTS timeline_pulled_author (
+    user_id BIGINT NOT NULL PRIMARY KEY REFERENCES app_user(user_id) ON DELETE CASCADE ON UPDATE CASCADE
+    );
+
+INSERT INTO timeline_pulled_author (user_id) SELECT DISTINCT user_id FROM feed WHERE pulled;
+
+DROP TABLE IF EXISTS timeline_cursor;
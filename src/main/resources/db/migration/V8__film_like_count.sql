@@ -0,0 +1,4 @@
+ALTER TABLE film ADD COLUMN IF NOT EXISTS like_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE film SET like_count = (SELECT COUNT(*) FROM film_like WHERE film_like.film_id = film.film_id)
+    WHERE like_count <> (SELECT COUNT(*) FROM film_like WHERE film_like.film_id = film.film_id);
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Suggestion;
+import ru.yandex.practicum.filmorate.model.enums.SuggestionType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AutocompleteIndexTest {
+
+    private PopularityIndex popularityIndex;
+    private AutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        Map<Long, String> titles = Map.of(1L, "The Matrix", 2L, "Matrix Reloaded", 3L, "Mad Max");
+        Map<Long, String> directors = Map.of(10L, "George Miller");
+
+        popularityIndex = new PopularityIndex();
+        popularityIndex.rebuild(Map.of(1L, 1999, 2L, 2003, 3L, 1979), Map.of(), Map.of(1L, 5L, 2L, 2L, 3L, 7L));
+        FilmSearchIndex filmSearchIndex = new FilmSearchIndex(popularityIndex);
+        filmSearchIndex.rebuild(titles, directors, List.<long[]>of(new long[]{3, 10}));
+
+        autocompleteIndex = new AutocompleteIndex(popularityIndex, filmSearchIndex);
+        autocompleteIndex.rebuild(titles, directors);
+    }
+
+    @Test
+    void shouldSuggestByWordPrefixOrderedByLikes() {
+        assertThat(autocompleteIndex.suggest("MA", 10)).extracting(Suggestion::getId).containsExactly(3L, 1L, 2L);
+        assertThat(autocompleteIndex.suggest("matrix r", 10)).extracting(Suggestion::getId).containsExactly(2L);
+        assertThat(autocompleteIndex.suggest("ma", 2)).extracting(Suggestion::getId).containsExactly(3L, 1L);
+        assertThat(autocompleteIndex.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldWeightDirectorsByLikesOfTheirFilms() {
+        assertThat(autocompleteIndex.suggest("m", 10))
+                .extracting(Suggestion::getType, Suggestion::getId)
+                .containsExactly(tuple(SuggestionType.DIRECTOR, 10L), tuple(SuggestionType.FILM, 3L),
+                        tuple(SuggestionType.FILM, 1L), tuple(SuggestionType.FILM, 2L));
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdates() {
+        autocompleteIndex.putFilm(2L, "Animatrix");
+        autocompleteIndex.removeFilm(3L);
+        autocompleteIndex.putDirector(11L, "Lana Wachowski");
+
+        assertThat(autocompleteIndex.suggest("ma", 10)).extracting(Suggestion::getId).containsExactly(1L);
+        assertThat(autocompleteIndex.suggest("anim", 10)).extracting(Suggestion::getTitle).containsExactly("Animatrix");
+        assertThat(autocompleteIndex.suggest("wach", 10)).extracting(Suggestion::getId).containsExactly(11L);
+    }
+
+    @Test
+    void shouldReorderShortPrefixesAndDirectorsAfterRefresh() {
+        popularityIndex.changeLikes(2L, 10);
+
+        assertThat(autocompleteIndex.suggest("ma", 10)).extracting(Suggestion::getId).containsExactly(3L, 1L, 2L);
+        assertThat(autocompleteIndex.suggest("matr", 10)).extracting(Suggestion::getId).containsExactly(2L, 1L);
+
+        autocompleteIndex.refreshWeights();
+
+        assertThat(autocompleteIndex.suggest("ma", 10)).extracting(Suggestion::getId).containsExactly(2L, 3L, 1L);
+        assertThat(autocompleteIndex.suggest("m", 1)).extracting(Suggestion::getId).containsExactly(2L);
+    }
+
+    @Test
+    void shouldFindHeaviestTitleInLargePrefixRangeWhereItSortsLast() {
+        Map<Long, String> titles = new HashMap<>();
+        Map<Long, Integer> years = new HashMap<>();
+        for (long filmId = 1; filmId <= 10_001; filmId++) {
+            titles.put(filmId, String.format("Film %05d", filmId));
+            years.put(filmId, 2000);
+        }
+        titles.put(20_000L, "Film zzz");
+        years.put(20_000L, 2000);
+        popularityIndex.rebuild(years, Map.of(), Map.of(20_000L, 1L));
+        autocompleteIndex.rebuild(titles, Map.of());
+
+        assertThat(autocompleteIndex.suggest("film", 1)).extracting(Suggestion::getId).containsExactly(20_000L);
+        assertThat(autocompleteIndex.suggest("fil", 1)).extracting(Suggestion::getId).containsExactly(20_000L);
+        assertThat(autocompleteIndex.suggest("film z", 1)).extracting(Suggestion::getId).containsExactly(20_000L);
+
+        autocompleteIndex.removeFilm(20_000L);
+
+        assertThat(autocompleteIndex.suggest("film", 1)).extracting(Suggestion::getId).doesNotContain(20_000L);
+    }
+}
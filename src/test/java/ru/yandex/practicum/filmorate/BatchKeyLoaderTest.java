@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import(BatchKeyLoader.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BatchKeyLoaderTest {
+
+    private static final String FIND_GENRES_SQL = "SELECT genre_id FROM genre WHERE genre_id IN (%s)";
+
+    private final BatchKeyLoader batchKeyLoader;
+
+    @Test
+    void shouldReturnEmptyListForNoKeys() {
+        assertThat(batchKeyLoader.query(FIND_GENRES_SQL, List.of(), (rs, rowNum) -> rs.getInt("genre_id")))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldPadSmallKeySetWithoutDuplicatingRows() {
+        List<Integer> genreIds = batchKeyLoader.query(FIND_GENRES_SQL, List.of(1L, 3L, 3L),
+                (rs, rowNum) -> rs.getInt("genre_id"));
+
+        assertThat(genreIds).containsExactlyInAnyOrder(1, 3);
+    }
+
+    @Test
+    void shouldSplitLargeKeySetIntoChunks() {
+        assertThat(batchKeyLoader.query(FIND_GENRES_SQL, keys(600), (rs, rowNum) -> rs.getInt("genre_id")))
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldLoadChunksInParallelOutsideTransaction() {
+        assertThat(batchKeyLoader.query(FIND_GENRES_SQL, keys(1000), (rs, rowNum) -> rs.getInt("genre_id")))
+                .containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6);
+    }
+
+    private List<Long> keys(int count) {
+        return LongStream.rangeClosed(1, count).boxed().toList();
+    }
+}
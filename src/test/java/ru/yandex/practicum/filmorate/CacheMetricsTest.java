@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.cache.ReviewRankingCache;
+import ru.yandex.practicum.filmorate.metrics.CacheMetrics;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ReferenceDataCache referenceDataCache = new ReferenceDataCache();
+    private final EntityCache entityCache = new EntityCache(100, Duration.ofMinutes(1));
+
+    @Test
+    void shouldPublishReferenceAndCaffeineCacheStatistics() {
+        new CacheMetrics(referenceDataCache, entityCache, new ReviewRankingCache(10, 100, 100),
+                new RecommendationCache(new RecommendationEngine(50, 10, 200), 100, 10)).bindTo(registry);
+
+        referenceDataCache.getMpaRatings().warmUp(List.of(new MpaRating(1, "G")));
+        referenceDataCache.getMpaRatings().get(1, id -> null);
+        referenceDataCache.getGenres().get(1, id -> null);
+        entityCache.getFilms().getIfPresent(1L);
+
+        assertThat(registry.get("filmorate.reference.cache").tags("cache", "mpa", "result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("filmorate.reference.cache").tags("cache", "genre", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("filmorate.reference.cache.size").tag("cache", "mpa").gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", "films", "result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.find("cache.size").tag("cache", "recommendations").gauge()).isNotNull();
+    }
+}
@@ -0,0 +1,172 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.DirectorDbStorage;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.storage.film.CachingFilmStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({CachingFilmStorage.class, EntityCache.class, FilmDbStorage.class, MpaRatingDbStorage.class,
+        GenreDbStorage.class, DirectorDbStorage.class, UserDbStorage.class, ReferenceDataCache.class,
+        PopularityIndex.class, FilmSearchIndex.class, AutocompleteIndex.class, RecommendationEngine.class,
+        RecommendationCache.class, BatchKeyLoader.class, FriendGraph.class, DirectorService.class})
+class CachingFilmStorageTest {
+
+    @Autowired
+    private CachingFilmStorage filmStorage;
+
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private DirectorService directorService;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Film film;
+
+    @BeforeEach
+    void setUp() {
+        entityCache.getFilms().invalidateAll();
+        film = filmStorage.addFilm(createFilm());
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        filmStorage.findById(film.getId());
+        renameInDatabase(film.getId(), "Changed Outside");
+
+        assertThat(filmStorage.findById(film.getId()).getName()).isEqualTo("Film");
+        assertThat(entityCache.getFilms().stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheInstanceReturnedFromAdd() {
+        film.setName("Changed By Caller");
+
+        assertThat(entityCache.getFilms().getIfPresent(film.getId())).isNull();
+        assertThat(filmStorage.findById(film.getId()).getName()).isEqualTo("Film");
+    }
+
+    @Test
+    void shouldEvictFilmOnUpdate() {
+        Film cached = filmStorage.findById(film.getId());
+        cached.setName("Updated");
+
+        filmStorage.updateFilm(cached);
+
+        assertThat(entityCache.getFilms().getIfPresent(film.getId())).isNull();
+        assertThat(filmStorage.findById(film.getId()).getName()).isEqualTo("Updated");
+    }
+
+    @Test
+    void shouldEvictFilmOnLikeAndUnlike() {
+        User user = userStorage.addUser(createUser());
+        filmStorage.findById(film.getId());
+
+        filmStorage.addLike(film.getId(), user.getId());
+        assertThat(filmStorage.findById(film.getId()).getLikeCount()).isEqualTo(1);
+
+        filmStorage.removeLike(film.getId(), user.getId());
+        assertThat(filmStorage.findById(film.getId()).getLikeCount()).isZero();
+    }
+
+    @Test
+    void shouldEvictFilmOnDelete() {
+        filmStorage.findById(film.getId());
+
+        filmStorage.deleteById(film.getId());
+
+        assertThrows(NotFoundException.class, () -> filmStorage.findById(film.getId()));
+    }
+
+    @Test
+    void shouldEvictFilmsOnDirectorUpdateAndDelete() {
+        Director director = directorService.addDirector(new Director(null, "Director"));
+        Film directed = createFilm();
+        directed.setDirectors(Set.of(director));
+        directed = filmStorage.addFilm(directed);
+        filmStorage.findById(directed.getId());
+
+        directorService.updateDirector(new Director(director.getId(), "Renamed"));
+        assertThat(filmStorage.findById(directed.getId()).getDirectors()).extracting(Director::getName)
+                .containsExactly("Renamed");
+
+        directorService.deleteDirector(director.getId());
+        assertThat(filmStorage.findById(directed.getId()).getDirectors()).isEmpty();
+    }
+
+    @Test
+    void shouldReloadFilmAfterEntryExpires() throws InterruptedException {
+        CachingFilmStorage shortLived = new CachingFilmStorage(filmDbStorage,
+                new EntityCache(100, Duration.ofMillis(50)));
+        shortLived.findById(film.getId());
+        renameInDatabase(film.getId(), "Changed Outside");
+
+        Thread.sleep(100);
+
+        assertThat(shortLived.findById(film.getId()).getName()).isEqualTo("Changed Outside");
+    }
+
+    private void renameInDatabase(long filmId, String name) {
+        jdbcTemplate.update("UPDATE film SET name = ? WHERE film_id = ?", name, filmId);
+    }
+
+    private Film createFilm() {
+        Film newFilm = new Film();
+        newFilm.setName("Film");
+        newFilm.setDescription("Description");
+        newFilm.setReleaseDate(LocalDate.of(2000, 1, 1));
+        newFilm.setDuration(90);
+        newFilm.setMpa(new MpaRating(1, "G"));
+        return newFilm;
+    }
+
+    private User createUser() {
+        return User.builder()
+                .email("user@mail.ru")
+                .login("user")
+                .name("User")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.CachingUserStorage;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({CachingUserStorage.class, EntityCache.class, UserDbStorage.class, BatchKeyLoader.class, FriendGraph.class})
+class CachingUserStorageTest {
+
+    @Autowired
+    private CachingUserStorage userStorage;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        entityCache.getUsers().invalidateAll();
+        user = userStorage.addUser(User.builder()
+                .email("user@mail.ru")
+                .login("user")
+                .name("User")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        userStorage.findById(user.getId());
+        jdbcTemplate.update("UPDATE app_user SET name = ? WHERE user_id = ?", "Changed Outside", user.getId());
+
+        assertThat(userStorage.findById(user.getId()).getName()).isEqualTo("User");
+        assertThat(userStorage.existsById(user.getId())).isTrue();
+    }
+
+    @Test
+    void shouldEvictUserOnUpdate() {
+        userStorage.findById(user.getId());
+        User updated = User.builder()
+                .id(user.getId())
+                .email("updated@mail.ru")
+                .login("updated")
+                .name("Updated")
+                .birthday(user.getBirthday())
+                .build();
+
+        userStorage.updateUser(updated);
+
+        assertThat(entityCache.getUsers().getIfPresent(user.getId())).isNull();
+        assertThat(userStorage.findById(user.getId()).getName()).isEqualTo("Updated");
+    }
+
+    @Test
+    void shouldEvictUserOnDelete() {
+        userStorage.findById(user.getId());
+
+        userStorage.deleteById(user.getId());
+
+        assertThat(userStorage.existsById(user.getId())).isFalse();
+        assertThrows(NotFoundException.class, () -> userStorage.findById(user.getId()));
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.FeedDbStorage;
+import ru.yandex.practicum.filmorate.dao.FeedEventWriter;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.EventOperation;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FeedDbStorage.class, FeedEventWriter.class, UserDbStorage.class, BatchKeyLoader.class, FriendGraph.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FeedDbStorageTest {
+
+    private final FeedDbStorage feedStorage;
+    private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userStorage.addUser(User.builder()
+                .email("feed@mail.ru")
+                .login("feed")
+                .name("Feed")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        List<Feed> events = new ArrayList<>();
+        for (long timestamp = 1; timestamp <= 5; timestamp++) {
+            Feed event = new Feed();
+            event.setUserId(user.getId());
+            event.setEntityId(timestamp);
+            event.setTimestamp(timestamp);
+            event.setEventType(EventType.LIKE);
+            event.setEventOperation(EventOperation.ADD);
+            events.add(event);
+        }
+        feedStorage.addEvents(events);
+    }
+
+    @Test
+    void shouldPageFeedBackwardsFromCursor() {
+        List<Feed> firstPage = feedStorage.findPageByUser(user.getId(), null, 2);
+        assertThat(firstPage).extracting(Feed::getEntityId).containsExactly(5L, 4L);
+
+        List<Feed> secondPage = feedStorage.findPageByUser(user.getId(), firstPage.get(1).getEventId(), 2);
+        assertThat(secondPage).extracting(Feed::getEntityId).containsExactly(3L, 2L);
+
+        List<Feed> lastPage = feedStorage.findPageByUser(user.getId(), secondPage.get(1).getEventId(), 2);
+        assertThat(lastPage).extracting(Feed::getEntityId).containsExactly(1L);
+    }
+
+    @Test
+    void shouldArchiveOldEventsInBatches() {
+        assertThat(feedStorage.archiveOlderThan(4, 2)).isEqualTo(2);
+        assertThat(feedStorage.archiveOlderThan(4, 2)).isEqualTo(1);
+        assertThat(feedStorage.archiveOlderThan(4, 2)).isZero();
+
+        assertThat(feedStorage.findByUser(user.getId())).extracting(Feed::getEntityId).containsExactly(4L, 5L);
+        assertThat(jdbcTemplate.queryForList("SELECT entity_id FROM feed_archive ORDER BY event_id", Long.class))
+                .containsExactly(1L, 2L, 3L);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.FeedEventWriter;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.enums.EventOperation;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedEventWriterTest {
+
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    private FeedEventWriter feedEventWriter;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                batches.add(batchArgs.stream().map(args -> (Long) args[1]).toList());
+                return new int[batchArgs.size()];
+            }
+        };
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        });
+
+        feedEventWriter = new FeedEventWriter(jdbcTemplate, transactionTemplate, 3, 2, Duration.ofHours(1));
+        feedEventWriter.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        feedEventWriter.shutdown();
+    }
+
+    @Test
+    void shouldWriteQueuedEventsInBatchesOnFlush() {
+        feedEventWriter.write(event(1));
+        feedEventWriter.write(event(2));
+        feedEventWriter.write(event(3));
+        feedEventWriter.flush();
+
+        assertThat(batches).containsExactly(List.of(1L, 2L), List.of(3L));
+    }
+
+    @Test
+    void shouldWriteInCallerThreadWhenQueueIsFull() {
+        for (long entityId = 1; entityId <= 4; entityId++) {
+            feedEventWriter.write(event(entityId));
+        }
+        feedEventWriter.flush();
+
+        assertThat(batches.stream().flatMap(List::stream)).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void shouldFlushQueueOnShutdown() throws InterruptedException {
+        feedEventWriter.write(event(1));
+        feedEventWriter.shutdown();
+
+        assertThat(batches).containsExactly(List.of(1L));
+    }
+
+    private Feed event(long entityId) {
+        Feed event = new Feed();
+        event.setUserId(1L);
+        event.setEntityId(entityId);
+        event.setTimestamp(entityId);
+        event.setEventType(EventType.LIKE);
+        event.setEventOperation(EventOperation.ADD);
+        return event;
+    }
+}
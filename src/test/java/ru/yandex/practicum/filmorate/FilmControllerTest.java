@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate;
 
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -8,16 +10,49 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
 public class FilmControllerTest {
 
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private DirectorService directorService;
+
     private Validator validator;
 
     @BeforeEach
@@ -80,4 +115,114 @@ public class FilmControllerTest {
         assertFalse(violations.isEmpty(),
                 "Дата релиза фильма раньше 28 декабря 1895 года не должна проходить валидацию");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldPageFilmsById() throws Exception {
+        Film first = addFilm("First");
+        Film second = addFilm("Second");
+        Film third = addFilm("Third");
+
+        mockMvc.perform(get("/films").param("after", String.valueOf(first.getId() - 1)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()));
+        mockMvc.perform(get("/films").param("after", String.valueOf(second.getId())).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(third.getId()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "-1", "1001", "2147483647"})
+    public void shouldRejectPageLimitOutOfRange(String limit) throws Exception {
+        mockMvc.perform(get("/films").param("limit", limit))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldStreamAllFilmsAsNdjson() throws Exception {
+        Film film = addFilm("Streamed");
+        int total = filmService.getAllFilms().size();
+
+        MvcResult result = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(total)
+                .anySatisfy(line -> assertThat(line).contains("\"id\":" + film.getId() + ","));
+    }
+
+    @Test
+    public void shouldImportValidFilmsAndRejectInvalidFromJsonArray() throws Exception {
+        DocumentContext results = importFilms(MediaType.APPLICATION_JSON,
+                "[" + String.join(",", mixedImportRows()) + "]");
+
+        assertThat(results.read("$[*].status", List.class)).containsExactly("CREATED", "REJECTED",
+                "REJECTED", "REJECTED", "REJECTED", "REJECTED", "CREATED");
+        assertThat(results.read("$[*].index", List.class)).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(results.read("$[1].error", String.class)).startsWith("name");
+        assertThat(results.read("$[2].error", String.class)).isEqualTo("MPA рейтинг с ID=99 не найден");
+        assertThat(results.read("$[3].error", String.class)).isEqualTo("Жанр с ID=99 не найден");
+        assertThat(results.read("$[4].error", String.class)).isEqualTo("Режиссер с ID=999999 не найден");
+        assertThat(results.read("$[5].error", String.class)).startsWith("Некорректные данные");
+    }
+
+    @Test
+    public void shouldImportValidFilmsAndRejectInvalidFromNdjson() throws Exception {
+        DocumentContext results = importFilms(MediaType.APPLICATION_NDJSON, String.join("\n", mixedImportRows()));
+
+        assertThat(results.read("$[*].status", List.class)).containsExactly("CREATED", "REJECTED",
+                "REJECTED", "REJECTED", "REJECTED", "REJECTED", "CREATED");
+        assertThat(results.read("$[0].id", Long.class)).isNotNull();
+
+        Film created = filmService.getFilmById(results.read("$[6].id", Long.class));
+        assertThat(created.getName()).isEqualTo("Directed");
+        assertThat(created.getDirectors()).extracting(Director::getName).containsExactly("Bulk Director");
+    }
+
+    /**
+     * Результаты загрузки приходят NDJSON по мере сохранения пачек; собираются в массив для проверки.
+     */
+    private DocumentContext importFilms(MediaType contentType, String content) throws Exception {
+        MvcResult result = mockMvc.perform(post("/films/bulk").contentType(contentType).content(content))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        return JsonPath.parse("[" + String.join(",", body.lines().toList()) + "]");
+    }
+
+    /**
+     * Две корректные строки вокруг строк с нарушением ограничений, несуществующими MPA, жанром и режиссером
+     * и значением неверного типа.
+     */
+    private List<String> mixedImportRows() {
+        Director director = directorService.addDirector(new Director(null, "Bulk Director"));
+        String base = "\"description\":\"Description\",\"releaseDate\":\"2000-01-01\",\"duration\":90";
+        return List.of(
+                "{\"name\":\"Valid\"," + base + ",\"mpa\":{\"id\":1},\"genres\":[{\"id\":1}]}",
+                "{\"name\":\"\"," + base + ",\"mpa\":{\"id\":1}}",
+                "{\"name\":\"Unknown MPA\"," + base + ",\"mpa\":{\"id\":99}}",
+                "{\"name\":\"Unknown genre\"," + base + ",\"mpa\":{\"id\":1},\"genres\":[{\"id\":99}]}",
+                "{\"name\":\"Unknown director\"," + base + ",\"mpa\":{\"id\":1},"
+                        + "\"directors\":[{\"id\":999999}]}",
+                "{\"name\":\"Wrong type\",\"description\":\"Description\",\"releaseDate\":\"2000-01-01\","
+                        + "\"duration\":\"long\",\"mpa\":{\"id\":1}}",
+                "{\"name\":\"Directed\"," + base + ",\"mpa\":{\"id\":1},"
+                        + "\"directors\":[{\"id\":" + director.getId() + "}]}");
+    }
+
+    private Film addFilm(String name) {
+        Film film = createValidFilm();
+        film.setName(name);
+        film.setMpa(new MpaRating(1, "G"));
+        return filmService.addFilm(film);
+    }
+}
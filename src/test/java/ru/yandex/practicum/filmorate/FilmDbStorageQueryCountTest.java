@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.DirectorDbStorage;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import({FilmDbStorage.class, MpaRatingDbStorage.class, GenreDbStorage.class, DirectorDbStorage.class,
+        UserDbStorage.class, ReferenceDataCache.class, PopularityIndex.class, FilmSearchIndex.class,
+        AutocompleteIndex.class, RecommendationEngine.class, RecommendationCache.class,
+        BatchKeyLoader.class, FriendGraph.class, FilmDbStorageQueryCountTest.QueryCountingConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FilmDbStorageQueryCountTest {
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private DirectorDbStorage directorStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private User friend;
+    private Director director;
+
+    @BeforeEach
+    void setUp() {
+        user = userStorage.addUser(createUser("user"));
+        friend = userStorage.addUser(createUser("friend"));
+        director = directorStorage.addDirector(new Director(null, "Test Director"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "film_like", "film_genre", "film_director", "friendship",
+                "film", "director", "app_user");
+        filmStorage.rebuildIndexes();
+        userStorage.rebuildFriendGraph();
+    }
+
+    @Test
+    void shouldLoadAllFilmsWithFixedNumberOfQueries() {
+        addFilms(10);
+
+        assertThat(countQueries(filmStorage::findAll)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotIssueQueriesPerRowInListMethods() {
+        addFilms(2);
+        Map<String, Integer> fewFilms = countQueriesPerListMethod();
+
+        addFilms(20);
+        Map<String, Integer> manyFilms = countQueriesPerListMethod();
+
+        assertThat(manyFilms).isEqualTo(fewFilms);
+    }
+
+    private Map<String, Integer> countQueriesPerListMethod() {
+        Map<String, Integer> queries = new LinkedHashMap<>();
+        queries.put("findAll", countQueries(filmStorage::findAll));
+        queries.put("findPopular", countQueries(() -> filmStorage.findPopular(100, null, null)));
+        queries.put("getFilmsQuery", countQueries(() ->
+                filmStorage.getFilmsQuery("film", List.of("title", "director"))));
+        queries.put("findFilmsByDirectorSorted", countQueries(() ->
+                filmStorage.findFilmsByDirectorSorted(director.getId(), "likes")));
+        queries.put("getRecommendations", countQueries(() -> filmStorage.getRecommendations(user.getId())));
+        queries.put("getCommonFilmsWithFriend", countQueries(() ->
+                filmStorage.getCommonFilmsWithFriend(user.getId(), friend.getId())));
+        return queries;
+    }
+
+    private int countQueries(Supplier<List<Film>> call) {
+        STATEMENTS.set(0);
+        assertThat(call.get()).isNotEmpty();
+        return STATEMENTS.get();
+    }
+
+    private void addFilms(int count) {
+        for (int i = 0; i < count; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            film.setDuration(90 + i);
+            film.setMpa(new MpaRating(1, "G"));
+            film.getGenres().add(new Genre(1 + i % 6, null));
+            film.setDirectors(Set.of(director));
+
+            Film addedFilm = filmStorage.addFilm(film);
+            filmStorage.addLike(addedFilm.getId(), friend.getId());
+            if (i % 2 == 0) {
+                filmStorage.addLike(addedFilm.getId(), user.getId());
+            }
+        }
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + System.nanoTime() + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    @TestConfiguration
+    static class QueryCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new QueryCountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class QueryCountingDataSource extends DelegatingDataSource {
+
+        QueryCountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return countingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return countingConnection(super.getConnection(username, password));
+        }
+
+        private Connection countingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            STATEMENTS.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException exception) {
+                            throw exception.getTargetException();
+                        }
+                    });
+        }
+    }
+}
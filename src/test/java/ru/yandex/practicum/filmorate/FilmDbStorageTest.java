@@ -6,28 +6,68 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.DirectorDbStorage;
 import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
 import ru.yandex.practicum.filmorate.dao.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
 
 import java.time.LocalDate;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
-@Import({FilmDbStorage.class, MpaRatingDbStorage.class})
+@Import({FilmDbStorage.class, MpaRatingDbStorage.class, GenreDbStorage.class, DirectorDbStorage.class,
+        ReferenceDataCache.class, PopularityIndex.class, FilmSearchIndex.class, AutocompleteIndex.class,
+        RecommendationEngine.class, RecommendationCache.class, BatchKeyLoader.class, UserDbStorage.class,
+        FriendGraph.class})
 class FilmDbStorageTest {
 
     @Autowired
     private FilmDbStorage filmStorage;
 
+    @Autowired
+    private DirectorDbStorage directorStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private FilmSearchIndex filmSearchIndex;
+
+    @Autowired
+    private PopularityIndex popularityIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Film testFilm;
 
     @BeforeEach
@@ -42,8 +82,7 @@ class FilmDbStorageTest {
         testFilm.setReleaseDate(LocalDate.of(2000, 1, 1));
         testFilm.setDuration(120);
         testFilm.setMpa(mpa);
-        testFilm.setGenres(new TreeSet<>());
-        testFilm.setLikes(new HashSet<>());
+        testFilm.setGenres(new TreeSet<>(Comparator.comparing(Genre::getId)));
     }
 
     @Test
@@ -64,6 +103,115 @@ class FilmDbStorageTest {
         assertThat(updatedFilm.getDescription()).isEqualTo("Updated Description");
     }
 
+    @Test
+    void shouldSyncGenresAndDirectorsOnUpdate() {
+        Director first = directorStorage.addDirector(new Director(null, "First"));
+        Director second = directorStorage.addDirector(new Director(null, "Second"));
+        testFilm.getGenres().addAll(Set.of(new Genre(1, null), new Genre(2, null)));
+        testFilm.setDirectors(Set.of(first));
+        Film addedFilm = filmStorage.addFilm(testFilm);
+
+        addedFilm.getGenres().clear();
+        addedFilm.getGenres().addAll(Set.of(new Genre(2, null), new Genre(3, null)));
+        addedFilm.setDirectors(Set.of(second));
+        Film updatedFilm = filmStorage.updateFilm(addedFilm);
+
+        assertThat(updatedFilm.getGenres()).extracting(Genre::getId).containsExactly(2, 3);
+        assertThat(updatedFilm.getDirectors()).extracting(Director::getId).containsExactly(second.getId());
+
+        filmStorage.deleteById(addedFilm.getId());
+        assertFalse(filmStorage.existsById(addedFilm.getId()));
+    }
+
+    @Test
+    void shouldAddFilmsInBatch() {
+        Film second = new Film();
+        second.setName("Second Film");
+        second.setDescription("Second Description");
+        second.setReleaseDate(LocalDate.of(2010, 1, 1));
+        second.setDuration(90);
+        second.setMpa(testFilm.getMpa());
+        second.getGenres().add(new Genre(2, null));
+
+        List<Film> addedFilms = filmStorage.addFilms(List.of(testFilm, second));
+
+        assertThat(addedFilms).extracting(Film::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(filmStorage.findById(second.getId()).getGenres()).extracting(Genre::getId).containsExactly(2);
+        assertThat(filmStorage.findAll()).hasSize(2);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldSearchByTitleAndDirector() {
+        Director director = directorStorage.addDirector(new Director(null, "Lana Wachowski"));
+        testFilm.setName("The Matrix");
+        testFilm.setDirectors(Set.of(director));
+        Film matrix = filmStorage.addFilm(testFilm);
+
+        try {
+            assertThat(filmStorage.getFilmsQuery("MATR", List.of("title"))).extracting(Film::getId)
+                    .containsExactly(matrix.getId());
+            assertThat(filmStorage.getFilmsQuery("wach", List.of("title"))).isEmpty();
+            assertThat(filmStorage.getFilmsQuery("wach", List.of("director", "title"))).extracting(Film::getId)
+                    .containsExactly(matrix.getId());
+
+            director.setName("Someone Else");
+            directorStorage.updateDirector(director);
+            assertThat(filmStorage.getFilmsQuery("wach", List.of("director"))).isEmpty();
+        } finally {
+            filmStorage.deleteById(matrix.getId());
+            directorStorage.deleteById(director.getId());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldNotIndexFilmWhenTransactionRollsBack() {
+        testFilm.setName("Rolled Back");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            filmStorage.addFilm(testFilm);
+            status.setRollbackOnly();
+        });
+
+        assertThat(filmSearchIndex.search("rolled", true, false)).isEmpty();
+        assertThat(popularityIndex.findTop(10, null, null)).doesNotContain(testFilm.getId());
+    }
+
+    @Test
+    void shouldPageLikesByUserId() {
+        Film otherFilm = new Film();
+        otherFilm.setName("Other Film");
+        otherFilm.setDescription("Other Description");
+        otherFilm.setReleaseDate(LocalDate.of(2010, 1, 1));
+        otherFilm.setDuration(90);
+        otherFilm.setMpa(testFilm.getMpa());
+        Film film = filmStorage.addFilm(testFilm);
+        otherFilm = filmStorage.addFilm(otherFilm);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = userStorage.addUser(User.builder()
+                    .email("user" + i + "@mail.ru")
+                    .login("user" + i)
+                    .name("User " + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+            userIds.add(user.getId());
+            filmStorage.addLike(film.getId(), user.getId());
+        }
+        filmStorage.addLike(otherFilm.getId(), userIds.get(0));
+        filmStorage.removeLike(film.getId(), userIds.get(2));
+
+        assertThat(filmStorage.findLikes(film.getId(), null, 2))
+                .containsExactly(userIds.get(0), userIds.get(1));
+        assertThat(filmStorage.findLikes(film.getId(), userIds.get(1), 2))
+                .containsExactly(userIds.get(3), userIds.get(4));
+        assertThat(filmStorage.findLikes(film.getId(), userIds.get(2), 1)).containsExactly(userIds.get(3));
+        assertThat(filmStorage.findLikes(film.getId(), userIds.get(4), 2)).isEmpty();
+        assertThat(filmStorage.findLikes(film.getId(), null, 10)).hasSize(4);
+        assertThat(filmStorage.findLikes(otherFilm.getId(), null, 10)).containsExactly(userIds.get(0));
+    }
+
     @Test
     void shouldFindFilmById() {
         Film addedFilm = filmStorage.addFilm(testFilm);
@@ -78,6 +226,14 @@ class FilmDbStorageTest {
         assertThat(films).hasSize(1);
     }
 
+    @Test
+    void shouldCheckFilmExists() {
+        Film addedFilm = filmStorage.addFilm(testFilm);
+
+        assertTrue(filmStorage.existsById(addedFilm.getId()));
+        assertFalse(filmStorage.existsById(999L));
+    }
+
     @Test
     void shouldThrowWhenFilmNotFound() {
         assertThrows(NotFoundException.class, () -> filmStorage.findById(999L));
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FriendGraphTest {
+
+    private FriendGraph friendGraph;
+
+    @BeforeEach
+    void setUp() {
+        friendGraph = new FriendGraph();
+        friendGraph.rebuild(List.of(
+                new long[]{1, 4}, new long[]{1, 2}, new long[]{1, 3},
+                new long[]{2, 3}, new long[]{2, 4}, new long[]{2, 5}));
+    }
+
+    @Test
+    void shouldKeepFriendsSorted() {
+        assertThat(friendGraph.getFriends(1)).containsExactly(2, 3, 4);
+        assertThat(friendGraph.getFollowers(3)).containsExactly(1, 2);
+        assertThat(friendGraph.getFriends(5)).isEmpty();
+    }
+
+    @Test
+    void shouldIntersectFriends() {
+        assertThat(friendGraph.getCommonFriends(1, 2)).containsExactly(3, 4);
+        assertThat(friendGraph.getCommonFriends(1, 5)).isEmpty();
+    }
+
+    @Test
+    void shouldUpdateOnAddAndRemove() {
+        friendGraph.addFriend(1, 5);
+        friendGraph.addFriend(1, 5);
+        friendGraph.removeFriend(2, 3);
+
+        assertThat(friendGraph.getFriends(1)).containsExactly(2, 3, 4, 5);
+        assertThat(friendGraph.getCommonFriends(1, 2)).containsExactly(4, 5);
+        assertThat(friendGraph.getFollowers(3)).containsExactly(1);
+    }
+
+    @Test
+    void shouldForgetRemovedUser() {
+        friendGraph.removeUser(4);
+        friendGraph.removeUser(1);
+
+        assertThat(friendGraph.getFriends(1)).isEmpty();
+        assertThat(friendGraph.getFriends(2)).containsExactly(3, 5);
+        assertThat(friendGraph.getFollowers(3)).containsExactly(2);
+    }
+}
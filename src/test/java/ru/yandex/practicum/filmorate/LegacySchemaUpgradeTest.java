@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запуск приложения на базе, созданной старыми {@code schema.sql} и {@code data.sql} до перехода на Flyway.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LegacySchemaUpgradeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws Exception {
+        String url = "jdbc:h2:file:" + Files.createTempDirectory("filmorate-legacy").resolve("filmorate");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "password")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("legacy/schema.sql"));
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("legacy/data.sql"));
+            insertLikedFilm(connection);
+        }
+        registry.add("spring.datasource.url", () -> url);
+    }
+
+    @Test
+    void shouldMigrateLegacyDatabaseAndBackfillLikeCounts() throws Exception {
+        mockMvc.perform(get("/films/popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Legacy"))
+                .andExpect(jsonPath("$[0].likeCount").value(1));
+    }
+
+    private static void insertLikedFilm(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO film (film_id, name, description, release_date, duration, mpa_id) " +
+                    "VALUES (1, 'Legacy', 'Description', DATE '2000-01-01', 100, 1)");
+            statement.execute("INSERT INTO app_user (user_id, email, login, name, birthday) " +
+                    "VALUES (1, 'legacy@mail.ru', 'legacy', 'legacy', DATE '1990-01-01')");
+            statement.execute("INSERT INTO film_like (film_id, user_id) VALUES (1, 1)");
+        }
+    }
+}
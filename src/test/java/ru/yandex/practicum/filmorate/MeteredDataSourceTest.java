@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.metrics.MeteredDataSource;
+import ru.yandex.practicum.filmorate.metrics.MetricsConfiguration;
+import ru.yandex.practicum.filmorate.metrics.QueriesPerRequestFilter;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({MetricsConfiguration.class, BatchKeyLoader.class, MeteredDataSourceTest.RegistryConfiguration.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class MeteredDataSourceTest {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry registry;
+    private final BatchKeyLoader batchKeyLoader;
+
+    @Test
+    void shouldTimeStatementsAndCountRowsWithCollapsedParameterList() {
+        jdbcTemplate.queryForList("SELECT genre_id FROM genre WHERE genre_id IN (?, ?)", Integer.class, 1, 2);
+        jdbcTemplate.queryForList("SELECT genre_id FROM genre   WHERE genre_id IN (?,?,?)", Integer.class, 1, 2, 3);
+
+        String statement = "SELECT genre_id FROM genre WHERE genre_id IN (?)";
+        assertThat(registry.get("filmorate.sql").tags("statement", statement, "operation", "SELECT").timer()
+                .count()).isEqualTo(2);
+        assertThat(registry.get("filmorate.sql.rows").tag("statement", statement).summary().totalAmount())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void shouldTagFailedStatementsWithException() {
+        try {
+            jdbcTemplate.queryForList("SELECT missing_column FROM genre", Integer.class);
+        } catch (RuntimeException ignored) {
+            // ошибка запроса ожидаема
+        }
+
+        assertThat(registry.get("filmorate.sql").tag("statement", "SELECT missing_column FROM genre").timer()
+                .getId().getTag("exception")).isNotEqualTo("none");
+    }
+
+    @Test
+    void shouldRecordQueriesPerRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films/popular");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films/popular");
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                List.of(1, 2, 3).forEach(id ->
+                        jdbcTemplate.queryForObject("SELECT name FROM genre WHERE genre_id = ?", String.class, id));
+            }
+        };
+
+        new QueriesPerRequestFilter(registry).doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(servlet));
+
+        assertThat(registry.get("filmorate.http.queries").tags("method", "GET", "uri", "/films/popular")
+                .summary().max()).isEqualTo(3);
+    }
+
+    /**
+     * Пачки ключей читаются параллельно только вне транзакции.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldCountQueriesOfParallelBatchesInRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/films");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films");
+        List<Long> keys = LongStream.rangeClosed(1, 600).boxed().toList();
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                batchKeyLoader.query("SELECT name FROM genre WHERE genre_id IN (%s)", keys,
+                        (resultSet, rowNum) -> resultSet.getString("name"));
+            }
+        };
+
+        new QueriesPerRequestFilter(registry).doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(servlet));
+
+        assertThat(registry.get("filmorate.http.queries").tags("method", "GET", "uri", "/films")
+                .summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldCloseTargetPool() throws Exception {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:metered-close");
+        MeteredDataSource dataSource = new MeteredDataSource(pool, registry);
+        dataSource.getConnection().close();
+
+        dataSource.close();
+
+        assertThat(pool.isClosed()).isTrue();
+    }
+
+    @TestConfiguration
+    static class RegistryConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
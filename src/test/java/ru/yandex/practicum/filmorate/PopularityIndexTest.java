@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PopularityIndexTest {
+
+    private PopularityIndex popularityIndex;
+
+    @BeforeEach
+    void setUp() {
+        popularityIndex = new PopularityIndex();
+        popularityIndex.rebuild(
+                Map.of(1L, 2000, 2L, 2000, 3L, 2010),
+                Map.of(1L, Set.of(1), 2L, Set.of(1, 2), 3L, Set.of(2)),
+                Map.of(1L, 5L, 2L, 3L, 3L, 10L));
+    }
+
+    @Test
+    void shouldOrderFilmsByLikes() {
+        assertThat(popularityIndex.findTop(10, null, null)).containsExactly(3L, 1L, 2L);
+        assertThat(popularityIndex.findTop(2, null, null)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void shouldFilterByGenreAndYear() {
+        assertThat(popularityIndex.findTop(10, 1, null)).containsExactly(1L, 2L);
+        assertThat(popularityIndex.findTop(10, null, 2010)).containsExactly(3L);
+        assertThat(popularityIndex.findTop(10, 2, 2000)).containsExactly(2L);
+        assertThat(popularityIndex.findTop(10, 3, null)).isEmpty();
+    }
+
+    @Test
+    void shouldReorderFilmsWhenLikesChange() {
+        popularityIndex.changeLikes(2L, 3);
+
+        assertThat(popularityIndex.findTop(10, 1, 2000)).containsExactly(2L, 1L);
+        assertThat(popularityIndex.getLikes(2L)).isEqualTo(6);
+    }
+
+    @Test
+    void shouldMoveFilmBetweenBucketsOnUpdate() {
+        popularityIndex.putFilm(1L, 2010, Set.of(2));
+
+        assertThat(popularityIndex.findTop(10, 1, null)).containsExactly(2L);
+        assertThat(popularityIndex.findTop(10, 2, 2010)).containsExactly(3L, 1L);
+        assertThat(popularityIndex.getLikes(1L)).isEqualTo(5);
+    }
+
+    @Test
+    void shouldForgetRemovedFilm() {
+        popularityIndex.removeFilm(3L);
+
+        assertThat(popularityIndex.findTop(10, null, null)).containsExactly(1L, 2L);
+        assertThat(popularityIndex.findTop(10, null, 2010)).isEmpty();
+    }
+}
@@ -0,0 +1,339 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.jdbc.JdbcTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.cache.ReviewRankingCache;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.DirectorDbStorage;
+import ru.yandex.practicum.filmorate.dao.FeedDbStorage;
+import ru.yandex.practicum.filmorate.dao.FeedEventWriter;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.dao.TimelineDbStorage;
+import ru.yandex.practicum.filmorate.dao.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.dao.ReviewDbStorage;
+import ru.yandex.practicum.filmorate.dao.ReviewUsefulAccumulator;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.AutocompleteIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.Review;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.EventOperation;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Перехватывает запросы, которые выполняют методы {@link FilmDbStorage} и {@link UserDbStorage},
+ * и проверяет по {@code EXPLAIN}, что H2 не читает таблицы целиком там, где есть подходящий индекс.
+ */
+@JdbcTest(properties = "filmorate.reviews.useful-flush-interval=PT1H")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@Import({FilmDbStorage.class, MpaRatingDbStorage.class, GenreDbStorage.class, DirectorDbStorage.class,
+        UserDbStorage.class, ReferenceDataCache.class, PopularityIndex.class, FilmSearchIndex.class,
+        AutocompleteIndex.class, RecommendationEngine.class, RecommendationCache.class,
+        FeedDbStorage.class, FeedEventWriter.class, TimelineDbStorage.class, BatchKeyLoader.class, FriendGraph.class,
+        ReviewDbStorage.class, ReviewUsefulAccumulator.class, ReviewRankingCache.class,
+        QueryPlanTest.StatementCapturingConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+
+    private static final List<CapturedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private DirectorDbStorage directorStorage;
+
+    @Autowired
+    private FeedDbStorage feedStorage;
+
+    @Autowired
+    private TimelineDbStorage timelineStorage;
+
+    @Autowired
+    private ReviewDbStorage reviewStorage;
+
+    @Autowired
+    private ReviewUsefulAccumulator usefulAccumulator;
+
+    @Autowired
+    private FeedEventWriter feedEventWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private User friend;
+    private User other;
+    private Director director;
+    private Film film;
+
+    @BeforeEach
+    void setUp() {
+        user = userStorage.addUser(createUser("user"));
+        friend = userStorage.addUser(createUser("friend"));
+        other = userStorage.addUser(createUser("other"));
+        userStorage.addFriend(user.getId(), other.getId());
+        userStorage.addFriend(friend.getId(), other.getId());
+        director = directorStorage.addDirector(new Director(null, "Director"));
+
+        for (int i = 0; i < 5; i++) {
+            Film newFilm = new Film();
+            newFilm.setName("Film " + i);
+            newFilm.setDescription("Description " + i);
+            newFilm.setReleaseDate(LocalDate.of(2000 + i, 1, 1));
+            newFilm.setDuration(90);
+            newFilm.setMpa(new MpaRating(1, "G"));
+            newFilm.getGenres().add(new Genre(1 + i % 3, null));
+            newFilm.setDirectors(Set.of(director));
+            film = filmStorage.addFilm(newFilm);
+            filmStorage.addLike(film.getId(), friend.getId());
+            if (i % 2 == 0) {
+                filmStorage.addLike(film.getId(), user.getId());
+            }
+        }
+    }
+
+    /**
+     * Индексы в памяти обновляются после фиксации транзакции, поэтому тесты работают без общей
+     * откатываемой транзакции и очищают таблицы сами.
+     */
+    @AfterEach
+    void tearDown() {
+        usefulAccumulator.flush();
+        feedEventWriter.flush();
+        JdbcTestUtils.deleteFromTables(jdbcTemplate, "timeline_entry", "feed_archive", "feed", "review_like",
+                "review", "film_like", "film_genre", "film_director", "friendship", "film", "director", "app_user");
+        filmStorage.rebuildIndexes();
+        userStorage.rebuildFriendGraph();
+    }
+
+    @Test
+    void shouldUseIndexesInFilmQueries() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findById", () -> filmStorage.findById(film.getId()));
+        calls.put("existsById", () -> filmStorage.existsById(film.getId()));
+        calls.put("findPage", () -> filmStorage.findPage(film.getId() - 3, 2));
+        calls.put("findLikes", () -> filmStorage.findLikes(film.getId(), null, 10));
+        calls.put("findPopular", () -> filmStorage.findPopular(10, 1, null));
+        calls.put("getFilmsQuery", () -> filmStorage.getFilmsQuery("film", List.of("title", "director")));
+        calls.put("findFilmsByDirectorSorted", () -> filmStorage.findFilmsByDirectorSorted(director.getId(), "likes"));
+        calls.put("getRecommendations", () -> filmStorage.getRecommendations(user.getId()));
+        calls.put("getCommonFilmsWithFriend", () -> filmStorage.getCommonFilmsWithFriend(user.getId(), friend.getId()));
+        calls.put("removeLike", () -> filmStorage.removeLike(film.getId(), friend.getId()));
+        calls.put("deleteById", () -> filmStorage.deleteById(film.getId()));
+
+        assertNoTableScans(calls);
+    }
+
+    @Test
+    void shouldUseIndexesInUserQueries() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findById", () -> userStorage.findById(user.getId()));
+        calls.put("existsById", () -> userStorage.existsById(user.getId()));
+        calls.put("findPage", () -> userStorage.findPage(user.getId(), 2));
+        calls.put("getFriends", () -> userStorage.getFriends(user.getId()));
+        calls.put("getCommonFriends", () -> userStorage.getCommonFriends(user.getId(), friend.getId()));
+        calls.put("findExistingIds", () -> userStorage.findExistingIds(List.of(user.getId(), friend.getId())));
+        calls.put("removeFriend", () -> userStorage.removeFriend(user.getId(), friend.getId()));
+        calls.put("deleteById", () -> userStorage.deleteById(other.getId()));
+
+        assertNoTableScans(calls);
+    }
+
+    @Test
+    void shouldUseIndexesInFeedQueries() {
+        feedStorage.addEvent(user.getId(), film.getId(), EventOperation.ADD, EventType.LIKE);
+
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findByUser", () -> feedStorage.findByUser(user.getId()));
+        calls.put("findPageByUser", () -> feedStorage.findPageByUser(user.getId(), Long.MAX_VALUE, 10));
+        calls.put("fanOutPending", () -> timelineStorage.fanOutPending());
+        calls.put("findTimelinePage", () -> timelineStorage.findPage(user.getId(), Long.MAX_VALUE, 10));
+        calls.put("unfollow", () -> timelineStorage.unfollow(user.getId(), other.getId()));
+        calls.put("archiveOlderThan", () -> feedStorage.archiveOlderThan(Long.MAX_VALUE, 10));
+
+        assertNoTableScans(calls);
+    }
+
+    @Test
+    void shouldUseIndexesInReviewQueries() {
+        Review review = new Review();
+        review.setFilmId(film.getId());
+        review.setUserId(user.getId());
+        review.setContent("Content");
+        review.setIsPositive(true);
+        review = reviewStorage.addReview(review);
+        reviewStorage.addLike(review.getReviewId(), friend.getId());
+        Long reviewId = review.getReviewId();
+
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findById", () -> reviewStorage.findById(reviewId));
+        calls.put("findRankedByFilm", () -> reviewStorage.findRanked(film.getId(), null, 10));
+        calls.put("findRankedByFilmAfter", () -> reviewStorage.findRanked(film.getId(), reviewId, 10));
+        calls.put("findRanked", () -> reviewStorage.findRanked(null, null, 10));
+        calls.put("findRankedAfter", () -> reviewStorage.findRanked(null, reviewId, 10));
+        calls.put("flush", () -> usefulAccumulator.flush());
+        calls.put("removeReaction", () -> reviewStorage.removeReaction(reviewId, friend.getId()));
+        calls.put("deleteById", () -> reviewStorage.deleteById(reviewId));
+
+        assertNoTableScans(calls);
+    }
+
+    private void assertNoTableScans(Map<String, Runnable> calls) {
+        Map<String, String> tableScans = new TreeMap<>();
+        calls.forEach((name, call) -> {
+            STATEMENTS.clear();
+            call.run();
+            List<CapturedStatement> statements = new ArrayList<>(STATEMENTS);
+            assertThat(statements).as(name).isNotEmpty();
+
+            for (CapturedStatement statement : statements) {
+                String plan = explain(statement);
+                if (plan.contains(".tableScan")) {
+                    tableScans.put(name + ": " + statement.sql(), plan);
+                }
+            }
+        });
+
+        assertThat(tableScans).isEmpty();
+    }
+
+    private String explain(CapturedStatement statement) {
+        return jdbcTemplate.query("EXPLAIN " + statement.sql(), preparedStatement -> {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                preparedStatement.setObject(parameter.getKey(), parameter.getValue());
+            }
+        }, resultSet -> {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + System.nanoTime() + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    @TestConfiguration
+    static class StatementCapturingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new StatementCapturingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class StatementCapturingDataSource extends DelegatingDataSource {
+
+        StatementCapturingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capturingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capturingConnection(super.getConnection(username, password));
+        }
+
+        private Connection capturingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement") && isExplainable((String) args[0])) {
+                            return capturingStatement((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private PreparedStatement capturingStatement(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer index) {
+                            parameters.put(index, method.getName().equals("setNull") ? null : args[1]);
+                        } else if (method.getName().startsWith("execute")) {
+                            STATEMENTS.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static boolean isExplainable(String sql) {
+            String statement = sql.stripLeading().toUpperCase();
+            return statement.startsWith("SELECT") || statement.startsWith("UPDATE") || statement.startsWith("DELETE");
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException exception) {
+                throw exception.getTargetException();
+            }
+        }
+    }
+}
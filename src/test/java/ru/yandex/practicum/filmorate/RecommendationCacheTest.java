@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationCache;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecommendationCacheTest {
+
+    private RecommendationEngine recommendationEngine;
+    private RecommendationCache recommendationCache;
+
+    @BeforeEach
+    void setUp() {
+        recommendationEngine = new RecommendationEngine(50, 10, 200);
+        recommendationEngine.rebuild(List.of(
+                new long[]{1, 1}, new long[]{2, 1},
+                new long[]{1, 2}, new long[]{2, 2}, new long[]{3, 2},
+                new long[]{1, 3}, new long[]{4, 3},
+                new long[]{5, 4}));
+        recommendationCache = new RecommendationCache(recommendationEngine, 100, 10);
+    }
+
+    @Test
+    void shouldFilterFilmsLikedAfterCaching() {
+        assertThat(recommendationCache.getRecommendations(1)).containsExactly(3L, 4L);
+
+        recommendationEngine.addLike(3, 1);
+
+        assertThat(recommendationCache.getRecommendations(1)).containsExactly(4L);
+    }
+
+    @Test
+    void shouldComputeMissedUserOnFirstRequest() {
+        assertThat(recommendationCache.getRecommendations(1)).containsExactly(3L, 4L);
+        assertThat(recommendationCache.getRecommendations().asMap()).containsOnlyKeys(1L);
+
+        recommendationCache.refreshStaleUsers();
+
+        assertThat(recommendationCache.getRecommendations().stats().loadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeCachedListUntilRefresh() {
+        assertThat(recommendationCache.getRecommendations(4)).isEmpty();
+
+        recommendationEngine.addLike(1, 4);
+        recommendationCache.markLikeChanged(4, 1);
+        assertThat(recommendationCache.getRecommendations(4)).isEmpty();
+
+        recommendationCache.refreshStaleUsers();
+        assertThat(recommendationCache.getRecommendations(4)).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void shouldRefreshOnlyCachedUsersWhoLikedTheSameFilm() {
+        assertThat(recommendationCache.getRecommendations(3)).doesNotContain(5L);
+
+        recommendationEngine.addLike(1, 4);
+        recommendationCache.markLikeChanged(4, 1);
+        recommendationCache.refreshStaleUsers();
+
+        assertThat(recommendationCache.getRecommendations().asMap()).containsOnlyKeys(3L);
+        assertThat(recommendationCache.getRecommendations(3)).contains(5L);
+    }
+
+    @Test
+    void shouldLimitInvalidatedUsersPerLike() {
+        recommendationCache = new RecommendationCache(recommendationEngine, 100, 1);
+        for (long userId = 1; userId <= 3; userId++) {
+            recommendationCache.getRecommendations(userId);
+        }
+        Map<Long, List<Long>> before = Map.copyOf(recommendationCache.getRecommendations().asMap());
+
+        recommendationEngine.addLike(1, 4);
+        recommendationCache.markLikeChanged(4, 1);
+        recommendationCache.refreshStaleUsers();
+
+        Map<Long, List<Long>> after = recommendationCache.getRecommendations().asMap();
+        assertThat(after).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(before.keySet().stream().filter(userId -> before.get(userId) != after.get(userId)))
+                .hasSizeLessThanOrEqualTo(1);
+    }
+}
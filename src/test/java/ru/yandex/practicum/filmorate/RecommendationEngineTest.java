@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.recommendation.RecommendationEngine;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecommendationEngineTest {
+
+    private RecommendationEngine recommendationEngine;
+
+    @BeforeEach
+    void setUp() {
+        recommendationEngine = new RecommendationEngine(50, 10, 200);
+        recommendationEngine.rebuild(List.of(
+                new long[]{1, 1}, new long[]{2, 1},
+                new long[]{1, 2}, new long[]{2, 2}, new long[]{3, 2},
+                new long[]{1, 3}, new long[]{4, 3},
+                new long[]{5, 4}));
+    }
+
+    @Test
+    void shouldComputeJaccardSimilarity() {
+        assertThat(recommendationEngine.getNeighbors(1)).containsExactly(
+                new RecommendationEngine.Neighbor(2, 2.0 / 3),
+                new RecommendationEngine.Neighbor(3, 1.0 / 3),
+                new RecommendationEngine.Neighbor(4, 1.0 / 3));
+    }
+
+    @Test
+    void shouldRecommendUnseenFilmsBySimilarity() {
+        assertThat(recommendationEngine.recommend(1)).containsExactly(3L, 4L);
+        assertThat(recommendationEngine.recommend(4)).isEmpty();
+        assertThat(recommendationEngine.recommend(99)).isEmpty();
+    }
+
+    @Test
+    void shouldUpdateSimilarityWhenLikesChange() {
+        recommendationEngine.addLike(4, 1);
+        recommendationEngine.addLike(4, 2);
+        recommendationEngine.removeLike(2, 1);
+
+        assertThat(recommendationEngine.recommend(1)).containsExactly(2L, 3L);
+        assertThat(recommendationEngine.getNeighbors(4)).first()
+                .isEqualTo(new RecommendationEngine.Neighbor(1, 1.0));
+    }
+
+    @Test
+    void shouldForgetRemovedFilm() {
+        recommendationEngine.removeFilm(3);
+        recommendationEngine.refreshStaleNeighbors();
+
+        assertThat(recommendationEngine.recommend(1)).containsExactly(4L);
+        assertThat(recommendationEngine.getNeighbors(2)).extracting(RecommendationEngine.Neighbor::filmId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void shouldTakeCandidatesOnlyFromNewestLikesOfEachUser() {
+        RecommendationEngine engine = new RecommendationEngine(50, 10, 2);
+        engine.rebuild(List.of(
+                new long[]{1, 1}, new long[]{2, 1}, new long[]{3, 1},
+                new long[]{1, 2}));
+
+        assertThat(engine.getNeighbors(3)).containsExactly(new RecommendationEngine.Neighbor(2, 1.0));
+        assertThat(engine.getNeighbors(1)).containsExactly(
+                new RecommendationEngine.Neighbor(2, 1.0 / 2),
+                new RecommendationEngine.Neighbor(3, 1.0 / 2));
+    }
+}
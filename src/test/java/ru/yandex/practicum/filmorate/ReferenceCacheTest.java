@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.ReferenceCache;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private ReferenceCache<Integer, Genre> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReferenceCache<>(Genre::getId);
+    }
+
+    @Test
+    void shouldAnswerFromWarmedUpCacheWithoutLoading() {
+        cache.warmUp(List.of(new Genre(1, "Комедия"), new Genre(2, "Драма")));
+
+        assertThat(cache.get(1, this::load).getName()).isEqualTo("Комедия");
+        assertThat(cache.get(3, this::load)).isNull();
+        assertThat(cache.getAll(this::loadAll)).hasSize(2);
+
+        assertThat(loads).hasValue(0);
+        assertThat(cache.getHits()).isEqualTo(3);
+        assertThat(cache.getMisses()).isZero();
+    }
+
+    @Test
+    void shouldCountMissAndCacheLoadedValue() {
+        assertThat(cache.get(1, this::load).getName()).isEqualTo("Genre 1");
+        assertThat(cache.get(1, this::load).getName()).isEqualTo("Genre 1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        cache.warmUp(List.of(new Genre(1, "Комедия")));
+
+        cache.invalidate(1);
+        assertThat(cache.get(1, this::load).getName()).isEqualTo("Genre 1");
+        assertThat(cache.getAll(this::loadAll)).extracting(Genre::getName).containsExactly("Genre 1", "Genre 2");
+        assertThat(cache.getAll(this::loadAll)).hasSize(2);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+        cache.get(2, this::load);
+
+        assertThat(loads).hasValue(3);
+        assertThat(cache.getMisses()).isEqualTo(3);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    private Genre load(Integer id) {
+        loads.incrementAndGet();
+        return new Genre(id, "Genre " + id);
+    }
+
+    private List<Genre> loadAll() {
+        loads.incrementAndGet();
+        return List.of(new Genre(1, "Genre 1"), new Genre(2, "Genre 2"));
+    }
+}
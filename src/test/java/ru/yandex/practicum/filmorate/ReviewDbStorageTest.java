@@ -0,0 +1,176 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.ReviewRankingCache;
+import ru.yandex.practicum.filmorate.dao.ReviewDbStorage;
+import ru.yandex.practicum.filmorate.dao.ReviewUsefulAccumulator;
+import ru.yandex.practicum.filmorate.model.Review;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest(properties = "filmorate.reviews.useful-flush-interval=PT1H")
+@AutoConfigureTestDatabase
+@Import({ReviewDbStorage.class, ReviewUsefulAccumulator.class, ReviewRankingCache.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ReviewDbStorageTest {
+
+    private final ReviewDbStorage reviewStorage;
+    private final ReviewUsefulAccumulator usefulAccumulator;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Review review;
+    private long filmId;
+    private long firstUserId;
+    private long secondUserId;
+
+    @BeforeEach
+    void setUp() {
+        firstUserId = insertUser("first");
+        secondUserId = insertUser("second");
+        jdbcTemplate.update("INSERT INTO film (name, description, release_date, duration, mpa_id) " +
+                "VALUES ('Film', 'Description', ?, 100, 1)", LocalDate.of(2000, 1, 1));
+        filmId = jdbcTemplate.queryForObject("SELECT MAX(film_id) FROM film", Long.class);
+
+        review = addReview();
+    }
+
+    @Test
+    void shouldApplyReactionsAsUpserts() {
+        reviewStorage.addLike(review.getReviewId(), firstUserId);
+        reviewStorage.addLike(review.getReviewId(), firstUserId);
+        reviewStorage.addLike(review.getReviewId(), secondUserId);
+        assertThat(reviewStorage.findById(review.getReviewId()).getUseful()).isEqualTo(2);
+
+        reviewStorage.addDislike(review.getReviewId(), secondUserId);
+        assertThat(reviewStorage.findById(review.getReviewId()).getUseful()).isZero();
+
+        reviewStorage.removeReaction(review.getReviewId(), firstUserId);
+        reviewStorage.removeReaction(review.getReviewId(), firstUserId);
+        assertThat(reviewStorage.findById(review.getReviewId()).getUseful()).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldFlushAccumulatedUsefulToDatabase() {
+        reviewStorage.addLike(review.getReviewId(), firstUserId);
+        reviewStorage.addLike(review.getReviewId(), secondUserId);
+        assertThat(storedUseful()).isZero();
+
+        usefulAccumulator.flush();
+
+        assertThat(storedUseful()).isEqualTo(2);
+        assertThat(usefulAccumulator.getPending(review.getReviewId())).isZero();
+        assertThat(reviewStorage.findRanked(null, null, 10)).extracting(Review::getUseful).containsExactly(2);
+    }
+
+    @Test
+    void shouldPageReviewsByUsefulThenId() {
+        Review second = addReview();
+        Review third = addReview();
+        reviewStorage.addLike(third.getReviewId(), firstUserId);
+        reviewStorage.addDislike(review.getReviewId(), firstUserId);
+        usefulAccumulator.flush();
+
+        List<Review> firstPage = reviewStorage.findRanked(filmId, null, 2);
+        assertThat(firstPage).extracting(Review::getReviewId)
+                .containsExactly(third.getReviewId(), second.getReviewId());
+
+        List<Review> secondPage = reviewStorage.findRanked(filmId, second.getReviewId(), 2);
+        assertThat(secondPage).extracting(Review::getReviewId).containsExactly(review.getReviewId());
+        assertThat(reviewStorage.findRanked(null, second.getReviewId(), 2)).extracting(Review::getReviewId)
+                .startsWith(review.getReviewId());
+    }
+
+    @Test
+    void shouldInvalidateCachedTopOnReaction() {
+        Review second = addReview();
+        assertThat(reviewStorage.findRanked(filmId, null, 10)).extracting(Review::getReviewId)
+                .containsExactly(review.getReviewId(), second.getReviewId());
+
+        reviewStorage.addLike(second.getReviewId(), firstUserId);
+        assertThat(reviewStorage.findRanked(filmId, null, 10)).extracting(Review::getReviewId)
+                .containsExactly(second.getReviewId(), review.getReviewId());
+
+        reviewStorage.removeReaction(second.getReviewId(), firstUserId);
+        reviewStorage.addDislike(second.getReviewId(), secondUserId);
+        usefulAccumulator.flush();
+        assertThat(reviewStorage.findRanked(filmId, null, 10)).extracting(Review::getUseful)
+                .containsExactly(0, -1);
+    }
+
+    @Test
+    void shouldReconcileStoredUsefulWithReactions() {
+        Review second = addReview();
+        reviewStorage.addLike(review.getReviewId(), firstUserId);
+        reviewStorage.addLike(review.getReviewId(), secondUserId);
+        usefulAccumulator.flush();
+        jdbcTemplate.update("UPDATE review SET useful = 42");
+
+        usefulAccumulator.reconcile();
+
+        assertThat(storedUseful()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT useful FROM review WHERE review_id = ?", Integer.class,
+                second.getReviewId())).isZero();
+    }
+
+    /**
+     * Пакет пишется в собственной транзакции, поэтому тест работает без общей откатываемой транзакции.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldNotDoubleCountDeltasAfterFailedFlush() {
+        Review overflowing = addReview();
+        try {
+            jdbcTemplate.update("UPDATE review SET useful = ? WHERE review_id = ?", Integer.MAX_VALUE,
+                    overflowing.getReviewId());
+            reviewStorage.addLike(review.getReviewId(), firstUserId);
+            reviewStorage.addLike(overflowing.getReviewId(), firstUserId);
+
+            assertThatThrownBy(usefulAccumulator::flush).isInstanceOf(DataAccessException.class);
+            assertThat(storedUseful()).isZero();
+            assertThat(usefulAccumulator.getPending(review.getReviewId())).isEqualTo(1);
+
+            jdbcTemplate.update("UPDATE review SET useful = 0 WHERE review_id = ?", overflowing.getReviewId());
+            usefulAccumulator.flush();
+            assertThat(storedUseful()).isEqualTo(1);
+        } finally {
+            usefulAccumulator.discard(overflowing.getReviewId());
+            jdbcTemplate.update("DELETE FROM review WHERE film_id = ?", filmId);
+            jdbcTemplate.update("DELETE FROM film WHERE film_id = ?", filmId);
+            jdbcTemplate.update("DELETE FROM app_user WHERE user_id IN (?, ?)", firstUserId, secondUserId);
+        }
+    }
+
+    private Review addReview() {
+        Review newReview = new Review();
+        newReview.setFilmId(filmId);
+        newReview.setUserId(firstUserId);
+        newReview.setContent("Content");
+        newReview.setIsPositive(true);
+        return reviewStorage.addReview(newReview);
+    }
+
+    private Integer storedUseful() {
+        return jdbcTemplate.queryForObject("SELECT useful FROM review WHERE review_id = ?", Integer.class,
+                review.getReviewId());
+    }
+
+    private long insertUser(String login) {
+        jdbcTemplate.update("INSERT INTO app_user (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                login + "@mail.ru", login, login, LocalDate.of(1990, 1, 1));
+        return jdbcTemplate.queryForObject("SELECT user_id FROM app_user WHERE login = ?", Long.class, login);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.generator.DataVolume;
+import ru.yandex.practicum.filmorate.generator.ScaleFreeGraph;
+import ru.yandex.practicum.filmorate.generator.SyntheticDataGenerator;
+import ru.yandex.practicum.filmorate.generator.ZipfSampler;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import(SyntheticDataGenerator.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class SyntheticDataGeneratorTest {
+
+    private final SyntheticDataGenerator generator;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldLoadConsistentData() {
+        long usersBefore = count("SELECT COUNT(*) FROM app_user");
+
+        generator.generate(new DataVolume(200, 50, 2_000, 3, 100, 300));
+
+        assertThat(count("SELECT COUNT(*) FROM app_user")).isEqualTo(usersBefore + 200);
+        assertThat(count("SELECT COUNT(*) FROM film_like")).isBetween(1_900L, 2_000L);
+        assertThat(count("SELECT COUNT(*) FROM friendship")).isEqualTo(3 * 197 + 1 + 2);
+        assertThat(count("SELECT COUNT(*) FROM film WHERE like_count <> " +
+                "(SELECT COUNT(*) FROM film_like l WHERE l.film_id = film.film_id)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM review WHERE useful <> (SELECT COALESCE(SUM(CASE WHEN is_useful " +
+                "THEN 1 ELSE -1 END), 0) FROM review_like l WHERE l.review_id = review.review_id)")).isZero();
+        assertThat(count("SELECT MAX(like_count) FROM film"))
+                .isGreaterThan(5 * count("SELECT MIN(like_count) FROM film"));
+
+        jdbcTemplate.update("INSERT INTO app_user (email, login, name, birthday) VALUES (?, ?, ?, ?)",
+                "new@mail.ru", "new", "new", LocalDate.of(1990, 1, 1));
+        assertThat(count("SELECT MAX(user_id) FROM app_user")).isGreaterThan(usersBefore + 200);
+    }
+
+    @Test
+    void shouldSkewZipfSamplesTowardsFirstItems() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.0);
+        Random random = new Random(1);
+        int[] hits = new int[1_000];
+        for (int i = 0; i < 100_000; i++) {
+            hits[sampler.sample(random)]++;
+        }
+
+        assertThat(hits[0]).isGreaterThan(10 * hits[99]);
+        assertThat(hits[0]).isBetween(12_000, 17_000);
+    }
+
+    @Test
+    void shouldGenerateGraphWithHubs() {
+        long[] edges = ScaleFreeGraph.generate(10_000, 3, new Random(1));
+        int[] inDegrees = new int[10_000];
+        for (long edge : edges) {
+            assertThat(edge >>> 32).isNotEqualTo(edge & 0xFFFFFFFFL);
+            inDegrees[(int) edge]++;
+        }
+
+        assertThat(Arrays.stream(edges).distinct().count()).isEqualTo(edges.length);
+        assertThat(Arrays.stream(inDegrees).max().orElseThrow()).isGreaterThan(100);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
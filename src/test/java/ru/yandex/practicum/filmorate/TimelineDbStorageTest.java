@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
+import ru.yandex.practicum.filmorate.dao.FeedDbStorage;
+import ru.yandex.practicum.filmorate.dao.FeedEventWriter;
+import ru.yandex.practicum.filmorate.dao.TimelineDbStorage;
+import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.Feed;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.enums.EventOperation;
+import ru.yandex.practicum.filmorate.model.enums.EventType;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest(properties = "filmorate.timeline.fanout-threshold=1")
+@AutoConfigureTestDatabase
+@Import({TimelineDbStorage.class, FeedDbStorage.class, FeedEventWriter.class, UserDbStorage.class,
+        BatchKeyLoader.class, FriendGraph.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class TimelineDbStorageTest {
+
+    private final TimelineDbStorage timelineStorage;
+    private final FeedDbStorage feedStorage;
+    private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    private User reader;
+    private User author;
+    private User celebrity;
+    private User fan;
+
+    @BeforeEach
+    void setUp() {
+        reader = userStorage.addUser(createUser("reader"));
+        author = userStorage.addUser(createUser("author"));
+        celebrity = userStorage.addUser(createUser("celebrity"));
+        fan = userStorage.addUser(createUser("fan"));
+
+        follow(reader, author);
+        follow(reader, celebrity);
+        follow(fan, celebrity);
+
+        for (long filmId = 1; filmId <= 3; filmId++) {
+            feedStorage.addEvent(author.getId(), filmId, EventOperation.ADD, EventType.LIKE);
+            feedStorage.addEvent(celebrity.getId(), filmId, EventOperation.ADD, EventType.LIKE);
+        }
+        timelineStorage.fanOutPending();
+    }
+
+    @Test
+    void shouldMergePrecomputedAndHighDegreeFeeds() {
+        List<Feed> timeline = timelineStorage.findPage(reader.getId(), null, 10);
+
+        assertThat(timeline).extracting(Feed::getUserId).containsExactly(
+                celebrity.getId(), author.getId(), celebrity.getId(), author.getId(),
+                celebrity.getId(), author.getId());
+        assertThat(timeline).extracting(Feed::getEventId).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM timeline_entry WHERE user_id = ?",
+                Integer.class, reader.getId())).isEqualTo(3);
+    }
+
+    @Test
+    void shouldPageTimelineBackwardsFromCursor() {
+        List<Feed> firstPage = timelineStorage.findPage(reader.getId(), null, 4);
+        List<Feed> secondPage = timelineStorage.findPage(reader.getId(), firstPage.get(3).getEventId(), 4);
+
+        assertThat(firstPage).hasSize(4);
+        assertThat(secondPage).hasSize(2);
+        assertThat(secondPage.get(0).getEventId()).isLessThan(firstPage.get(3).getEventId());
+    }
+
+    @Test
+    void shouldBackfillOnFollowAndDropOnUnfollow() {
+        userStorage.removeFriend(reader.getId(), author.getId());
+        timelineStorage.unfollow(reader.getId(), author.getId());
+        assertThat(timelineStorage.findPage(reader.getId(), null, 10)).extracting(Feed::getUserId)
+                .containsOnly(celebrity.getId());
+
+        follow(reader, author);
+        assertThat(timelineStorage.findPage(reader.getId(), null, 10)).hasSize(6);
+    }
+
+    @Test
+    void shouldShowFriendEventsBeforeFanOut() {
+        feedStorage.addEvent(author.getId(), 4L, EventOperation.ADD, EventType.LIKE);
+
+        List<Feed> beforeFanOut = timelineStorage.findPage(reader.getId(), null, 10);
+        timelineStorage.fanOutPending();
+        List<Feed> afterFanOut = timelineStorage.findPage(reader.getId(), null, 10);
+
+        assertThat(beforeFanOut).hasSize(7).first().extracting(Feed::getEntityId).isEqualTo(4L);
+        assertThat(afterFanOut).extracting(Feed::getEventId)
+                .containsExactlyElementsOf(beforeFanOut.stream().map(Feed::getEventId).toList());
+    }
+
+    @Test
+    void shouldFanOutEventCommittedAfterNewerEvents() {
+        long eventId = jdbcTemplate.queryForObject("SELECT MIN(event_id) - 1 FROM feed", Long.class);
+        jdbcTemplate.update("INSERT INTO feed (event_id, user_id, entity_id, timestamp, event_type, event_operation) " +
+                "OVERRIDING SYSTEM VALUE VALUES (?, ?, 4, 0, 'LIKE', 'ADD')", eventId, author.getId());
+
+        timelineStorage.fanOutPending();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM timeline_entry WHERE user_id = ? " +
+                "AND event_id = ?", Integer.class, reader.getId(), eventId)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepPulledEventsWhenAuthorLosesFollowers() {
+        List<Feed> before = timelineStorage.findPage(reader.getId(), null, 10);
+
+        userStorage.removeFriend(fan.getId(), celebrity.getId());
+        timelineStorage.unfollow(fan.getId(), celebrity.getId());
+        feedStorage.addEvent(celebrity.getId(), 4L, EventOperation.ADD, EventType.LIKE);
+        timelineStorage.fanOutPending();
+
+        List<Feed> after = timelineStorage.findPage(reader.getId(), null, 10);
+        assertThat(after).hasSize(7);
+        assertThat(after.subList(1, 7)).extracting(Feed::getEventId)
+                .containsExactlyElementsOf(before.stream().map(Feed::getEventId).toList());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM timeline_entry WHERE user_id = ? " +
+                "AND event_id = ?", Integer.class, reader.getId(), after.get(0).getEventId())).isEqualTo(1);
+    }
+
+    private void follow(User user, User friend) {
+        userStorage.addFriend(user.getId(), friend.getId());
+        timelineStorage.follow(user.getId(), friend.getId());
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
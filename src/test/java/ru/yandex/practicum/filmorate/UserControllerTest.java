@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate;
 
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -8,14 +10,53 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.timeline.TimelineStorage;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
 public class UserControllerTest {
 
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TimelineStorage timelineStorage;
+
+    @Autowired
+    private FilmService filmService;
+
     private Validator validator;
 
     @BeforeEach
@@ -46,4 +87,228 @@ public class UserControllerTest {
         Set<ConstraintViolation<User>> violations = validator.validate(user);
         assertFalse(violations.isEmpty(), "Логин с пробелами не должен проходить валидацию");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldPageUsersById() throws Exception {
+        User first = addUser("first");
+        User second = addUser("second");
+        User third = addUser("third");
+
+        mockMvc.perform(get("/users").param("after", String.valueOf(first.getId() - 1)).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()));
+        mockMvc.perform(get("/users").param("after", String.valueOf(second.getId())).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(third.getId()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1001", "2147483647"})
+    public void shouldRejectPageLimitOutOfRange(String limit) throws Exception {
+        mockMvc.perform(get("/users").param("limit", limit))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldStreamAllUsersAsNdjson() throws Exception {
+        User user = addUser("streamed");
+        int total = userService.getAllUsers().size();
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(total)
+                .anySatisfy(line -> assertThat(line).contains("\"id\":" + user.getId() + ","));
+    }
+
+    @Test
+    public void shouldImportUsersAndReportRejectionsFromJsonArray() throws Exception {
+        User existing = addUser("existing");
+        List<String> rows = userImportRows(existing.getEmail(), "array");
+
+        DocumentContext results = importRows("/users/bulk", MediaType.APPLICATION_JSON,
+                "[" + String.join(",", rows) + "]");
+
+        assertThat(results.read("$[*].status", List.class)).containsExactly("CREATED", "REJECTED", "REJECTED",
+                "REJECTED", "REJECTED");
+        assertThat(results.read("$[1].error", String.class)).isEqualTo("Пользователь с email "
+                + existing.getEmail() + " уже существует");
+        assertThat(results.read("$[2].error", String.class)).startsWith("Пользователь с email new-array");
+        assertThat(results.read("$[3].error", String.class)).startsWith("email");
+        assertThat(results.read("$[4].error", String.class)).startsWith("Некорректные данные");
+    }
+
+    @Test
+    public void shouldImportUsersAndReportRejectionsFromNdjson() throws Exception {
+        User existing = addUser("existing");
+        List<String> rows = userImportRows(existing.getEmail(), "ndjson");
+
+        DocumentContext results = importRows("/users/bulk", MediaType.APPLICATION_NDJSON, String.join("\n", rows));
+
+        assertThat(results.read("$[*].status", List.class)).containsExactly("CREATED", "REJECTED", "REJECTED",
+                "REJECTED", "REJECTED");
+        Long createdId = results.read("$[0].id", Long.class);
+        assertThat(userService.getUserById(createdId).getName()).isEqualTo("new-ndjson");
+    }
+
+    @Test
+    public void shouldImportFriendshipsAndReportRejectionsFromJsonArray() throws Exception {
+        User user = addUser("user");
+        User friend = addUser("friend");
+        User other = addUser("other");
+        userService.addFriend(user.getId(), other.getId());
+
+        DocumentContext results = importRows("/users/friends/bulk", MediaType.APPLICATION_JSON,
+                "[" + String.join(",", friendshipImportRows(user, friend, other)) + "]");
+
+        assertThat(results.read("$[*].status", List.class)).containsExactly("CREATED", "REJECTED", "REJECTED",
+                "REJECTED", "REJECTED");
+        assertThat(results.read("$[1].error", String.class)).isEqualTo("Пользователь с ID=999999 не найден");
+        assertThat(results.read("$[2].error", String.class)).isEqualTo("Пользователи уже являются друзьями");
+        assertThat(results.read("$[3].error", String.class)).isEqualTo("Пользователи уже являются друзьями");
+        assertThat(results.read("$[4].error", String.class))
+                .isEqualTo("Пользователь не может добавить в друзья самого себя");
+
+        assertThat(userService.getFriends(user.getId())).extracting(User::getId)
+                .containsExactlyInAnyOrder(friend.getId(), other.getId());
+    }
+
+    @Test
+    public void shouldImportFriendshipsAndReportRejectionsFromNdjson() throws Exception {
+        User user = addUser("user");
+        User friend = addUser("friend");
+        User other = addUser("other");
+        userService.addFriend(user.getId(), other.getId());
+
+        DocumentContext results = importRows("/users/friends/bulk", MediaType.APPLICATION_NDJSON,
+                String.join("\n", friendshipImportRows(user, friend, other)));
+
+        assertThat(results.read("$[*].status", List.class)).containsExactly("CREATED", "REJECTED", "REJECTED",
+                "REJECTED", "REJECTED");
+
+        assertThat(userService.getFriends(user.getId())).extracting(User::getId)
+                .containsExactlyInAnyOrder(friend.getId(), other.getId());
+    }
+
+    @Test
+    public void shouldBackfillTimelineOfImportedFriendships() throws Exception {
+        User user = addUser("reader");
+        User friend = addUser("author");
+        User other = addUser("authorFriend");
+        userService.addFriend(friend.getId(), other.getId());
+        timelineStorage.fanOutPending();
+
+        DocumentContext results = importRows("/users/friends/bulk", MediaType.APPLICATION_JSON,
+                "[{\"userId\":" + user.getId() + ",\"friendId\":" + friend.getId() + "}]");
+        assertThat(results.read("$[0].status", String.class)).isEqualTo("CREATED");
+
+        mockMvc.perform(get("/users/{id}/timeline", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].userId", contains(friend.getId().intValue())))
+                .andExpect(jsonPath("$[0].entityId").value(other.getId()));
+    }
+
+    @Test
+    public void shouldRecommendFilmsOnFirstRequest() throws Exception {
+        Film shared = addFilm("Shared");
+        Film recommended = addFilm("Recommended");
+        User neighbor = addUser("neighbor");
+        User reader = addUser("recommendations");
+        filmService.addLike(shared.getId(), neighbor.getId());
+        filmService.addLike(recommended.getId(), neighbor.getId());
+        filmService.addLike(shared.getId(), reader.getId());
+
+        mockMvc.perform(get("/users/{id}/recommendations", reader.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(recommended.getId().intValue())));
+    }
+
+    /**
+     * Результаты загрузки приходят NDJSON по мере сохранения пачек; собираются в массив для проверки.
+     */
+    private DocumentContext importRows(String url, MediaType contentType, String content) throws Exception {
+        MvcResult result = mockMvc.perform(post(url).contentType(contentType).content(content))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        return JsonPath.parse("[" + String.join(",", body.lines().toList()) + "]");
+    }
+
+    /**
+     * Новый пользователь, занятый email, повтор email внутри загрузки, некорректный email и неверный тип поля.
+     */
+    private List<String> userImportRows(String takenEmail, String suffix) {
+        String email = "new-" + suffix + System.nanoTime() + "@mail.ru";
+        return List.of(
+                userRow(email, "new-" + suffix, "\"1990-01-01\""),
+                userRow(takenEmail, "taken", "\"1990-01-01\""),
+                userRow(email, "repeated", "\"1990-01-01\""),
+                userRow("invalid", "invalid", "\"1990-01-01\""),
+                userRow("typed" + System.nanoTime() + "@mail.ru", "typed", "[1990]"));
+    }
+
+    private String userRow(String email, String login, String birthday) {
+        return "{\"email\":\"" + email + "\",\"login\":\"" + login + "\",\"birthday\":" + birthday + "}";
+    }
+
+    /**
+     * Новая дружба, несуществующий друг, уже существующая дружба, повтор внутри загрузки и дружба с самим собой.
+     */
+    private List<String> friendshipImportRows(User user, User friend, User other) {
+        return List.of(
+                friendshipRow(user.getId(), friend.getId()),
+                friendshipRow(user.getId(), 999999L),
+                friendshipRow(user.getId(), other.getId()),
+                friendshipRow(user.getId(), friend.getId()),
+                friendshipRow(user.getId(), user.getId()));
+    }
+
+    private String friendshipRow(Long userId, Long friendId) {
+        return "{\"userId\":" + userId + ",\"friendId\":" + friendId + "}";
+    }
+
+    @Test
+    public void shouldReturnWholeFeedOldestFirstAndPagesNewestFirst() throws Exception {
+        User user = addUser("feed");
+        User friend = addUser("feedFriend");
+        userService.addFriend(user.getId(), friend.getId());
+        userService.removeFriend(user.getId(), friend.getId());
+
+        mockMvc.perform(get("/users/{id}/feed", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].operation", contains("ADD", "REMOVE")));
+        mockMvc.perform(get("/users/{id}/feed", user.getId()).param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].operation", contains("REMOVE", "ADD")));
+    }
+
+    private User addUser(String login) {
+        return userService.addUser(User.builder()
+                .email(login + System.nanoTime() + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+    }
+
+    private Film addFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(90);
+        film.setMpa(new MpaRating(1, "G"));
+        return filmService.addFilm(film);
+    }
+}
@@ -7,8 +7,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.dao.BatchKeyLoader;
 import ru.yandex.practicum.filmorate.dao.UserDbStorage;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
@@ -21,11 +28,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @JdbcTest
 @AutoConfigureTestDatabase
-@Import(UserDbStorage.class)
+@Import({UserDbStorage.class, BatchKeyLoader.class, FriendGraph.class})
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class UserDbStorageTest {
 
     private final UserDbStorage userStorage;
+    private final PlatformTransactionManager transactionManager;
 
     private User testUser;
 
@@ -136,6 +144,60 @@ class UserDbStorageTest {
         assertFalse(userStorage.existsById(999L));
     }
 
+    @Test
+    void shouldAddUsersAndFriendsInBatch() {
+        User friend = User.builder()
+                .email("friend@mail.ru")
+                .login("friendLogin")
+                .name("Friend Name")
+                .birthday(LocalDate.of(1991, 1, 1))
+                .build();
+
+        List<User> addedUsers = userStorage.addUsers(List.of(testUser, friend));
+        Long userId = addedUsers.get(0).getId();
+        Long friendId = addedUsers.get(1).getId();
+
+        assertThat(userStorage.findExistingIds(List.of(userId, friendId, 999L))).containsOnly(userId, friendId);
+        assertThat(userStorage.findExistingEmails(List.of("friend@mail.ru", "other@mail.ru")))
+                .containsOnly("friend@mail.ru");
+
+        boolean[] inserted = userStorage.addFriends(List.of(new Friendship(userId, friendId),
+                new Friendship(userId, friendId)));
+        assertThat(inserted).containsExactly(true, false);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldUpdateFriendGraphOnlyAfterCommit() {
+        User user = userStorage.addUser(createUser("graph-user"));
+        User friend = userStorage.addUser(createUser("graph-friend"));
+        List<Friendship> friendships = List.of(new Friendship(user.getId(), friend.getId()));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                userStorage.addFriends(friendships);
+                status.setRollbackOnly();
+            });
+            assertThat(userStorage.getFriends(user.getId())).isEmpty();
+
+            transactionTemplate.executeWithoutResult(status -> userStorage.addFriends(friendships));
+            assertThat(userStorage.getFriends(user.getId())).extracting(User::getId).containsExactly(friend.getId());
+        } finally {
+            userStorage.deleteById(user.getId());
+            userStorage.deleteById(friend.getId());
+        }
+    }
+
+    private User createUser(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
     @Test
     void shouldThrowWhenUserNotFound() {
         assertThrows(NotFoundException.class, () -> userStorage.findById(999L));